@@ -12,6 +12,7 @@
 import ast
 import re
 import json
+import struct
 
 EXTENSIONS = {}
 KEYS = []
@@ -126,4 +127,159 @@ def GenerateTemplate(SCM : dict, extensions : dict):
             if component in template["components"]:
                 template["components"].remove(component)
 
-    return template
\ No newline at end of file
+    return template
+
+# --------------------------------------------
+# Binary templates
+#
+# Same template in the binary schema format
+# that the extension loads with the
+# "LoadCompiledSchema" block. Components are
+# already flattened and template parameters
+# are already located, so the extension doesn't
+# need to parse any JSON. The format is described
+# in BinarySchema.java.
+# --------------------------------------------
+
+BINARY_MAGIC = b"DCSB"
+BINARY_VERSION = 1
+
+TAG_NULL = 0
+TAG_FALSE = 1
+TAG_TRUE = 2
+TAG_INT = 3
+TAG_LONG = 4
+TAG_DOUBLE = 5
+TAG_TEXT = 6
+TAG_JSON = 7
+
+
+def WriteVarint(out : bytearray, value : int):
+    while True:
+        byte = value & 0x7F
+        value >>= 7
+        if value:
+            out.append(byte | 0x80)
+        else:
+            out.append(byte)
+            return
+
+
+def ZigZag(value : int):
+    return (value << 1) ^ (value >> 63)
+
+
+# Split a text into literals and parameter indexes in the
+# same way the extension does when it compiles a JSON template.
+# "Hello, {name}!" --> ["Hello, ", "!"], [index of name]
+def SplitText(text : str, keyIndexes : dict):
+    literals = []
+    slots = []
+    if not keyIndexes or "{" not in text:
+        return literals, slots
+    literalStart = 0
+    openBrace = -1
+    for i, c in enumerate(text):
+        if c == "{":
+            openBrace = i
+        elif c == "}" and openBrace != -1:
+            key = text[openBrace + 1:i]
+            if key in keyIndexes:
+                literals.append(text[literalStart:openBrace])
+                slots.append(keyIndexes[key])
+                literalStart = i + 1
+            openBrace = -1
+    if slots:
+        literals.append(text[literalStart:])
+    return literals, slots
+
+
+def BuildBinaryTemplate(template : dict):
+    if str(template.get("metadata-version", "")) != "1":
+        raise ValueError("Metadata version ('metadata-version' key in JSON) must equal to 1.")
+    # An empty "components" list is allowed, in the same way as the extension does.
+    if "components" not in template:
+        raise ValueError("The template is empty, or is does not have any components.")
+    # Strings are written once, and referenced by their index later.
+    strings = {}
+    def String(text : str):
+        if text not in strings:
+            strings[text] = len(strings)
+        return strings[text]
+
+    keys = [str(key) for key in template.get("keys", [])]
+    keyIndexes = {}
+    for index, key in enumerate(keys):
+        if key not in keyIndexes:
+            keyIndexes[key] = index
+
+    body = bytearray()
+
+    def Text(text : str):
+        literals, slots = SplitText(text, keyIndexes)
+        WriteVarint(body, String(text))
+        WriteVarint(body, len(slots))
+        if slots:
+            for literal in literals:
+                WriteVarint(body, String(literal))
+            for slot in slots:
+                WriteVarint(body, slot)
+
+    def Value(value):
+        # Booleans are also integers in Python, so check them first.
+        if value is None:
+            body.append(TAG_NULL)
+        elif isinstance(value, bool):
+            body.append(TAG_TRUE if value else TAG_FALSE)
+        elif isinstance(value, int) and -2 ** 31 <= value < 2 ** 31:
+            body.append(TAG_INT)
+            WriteVarint(body, ZigZag(value))
+        elif isinstance(value, int) and -2 ** 63 <= value < 2 ** 63:
+            body.append(TAG_LONG)
+            WriteVarint(body, ZigZag(value))
+        elif isinstance(value, (int, float)):
+            body.append(TAG_DOUBLE)
+            body.extend(struct.pack(">d", float(value)))
+        elif isinstance(value, str):
+            body.append(TAG_TEXT)
+            Text(value)
+        else:
+            body.append(TAG_JSON)
+            WriteVarint(body, String(json.dumps(value)))
+
+    # Flatten the components, parents always come before their children.
+    nodes = []
+    def Flatten(parent : int, component : dict):
+        if "id" not in component or "type" not in component:
+            raise ValueError("All components in the schema at least must have an 'id' and 'type'.")
+        nodes.append((parent, component))
+        index = len(nodes) - 1
+        for child in component.get("components", []):
+            Flatten(index, child)
+    for component in template["components"]:
+        Flatten(-1, component)
+
+    WriteVarint(body, String(str(template.get("name", ""))))
+    WriteVarint(body, len(keys))
+    for key in keys:
+        WriteVarint(body, String(key))
+    WriteVarint(body, len(nodes))
+    for parent, component in nodes:
+        WriteVarint(body, parent + 1)
+        Text(str(component["id"]))
+        Text(str(component["type"]))
+        properties = component.get("properties", {})
+        WriteVarint(body, len(properties))
+        for key, value in properties.items():
+            Text(str(key))
+            Value(value)
+
+    out = bytearray(BINARY_MAGIC)
+    WriteVarint(out, BINARY_VERSION)
+    WriteVarint(out, len(strings))
+    for text in strings:
+        encoded = text.encode("utf-8")
+        WriteVarint(out, len(encoded))
+        out.extend(encoded)
+    out.extend(body)
+    return bytes(out)
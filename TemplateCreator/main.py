@@ -5,9 +5,9 @@ import json
 import os
 
 try:
-    from TemplateCreate import GenerateTemplate
+    from TemplateCreate import GenerateTemplate, BuildBinaryTemplate
 except:
-    from TemplateCreator.TemplateCreate import GenerateTemplate
+    from TemplateCreator.TemplateCreate import GenerateTemplate, BuildBinaryTemplate
 
 app = App(title="TemplateCreator")
 app.visible = False
@@ -33,6 +33,8 @@ def Generate(screenName):
     else:
         template = GenerateTemplate(PROJECTS[screenName], EXTENSIONS)
         open(template["name"] + " - " + screenName + ".json", "w+").write(json.dumps(template, indent = 4))
+        # Also save the binary version, which can be loaded with the "LoadCompiledSchema" block.
+        open(template["name"] + " - " + screenName + ".dcs", "wb").write(BuildBinaryTemplate(template))
         app.info("Completed", "Done!")
         app.destroy()
         sys.exit(0)
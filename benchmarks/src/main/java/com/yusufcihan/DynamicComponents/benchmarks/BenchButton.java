@@ -0,0 +1,171 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import com.google.appinventor.components.annotations.DesignerComponent;
+import com.google.appinventor.components.annotations.DesignerProperty;
+import com.google.appinventor.components.annotations.PropertyCategory;
+import com.google.appinventor.components.annotations.SimpleEvent;
+import com.google.appinventor.components.annotations.SimpleFunction;
+import com.google.appinventor.components.annotations.SimpleObject;
+import com.google.appinventor.components.annotations.SimpleProperty;
+import com.google.appinventor.components.common.ComponentCategory;
+import com.google.appinventor.components.runtime.AndroidViewComponent;
+
+import android.view.View;
+
+/*
+    A component shaped like the stock Button, with a similar amount of
+    annotated properties, functions and events, so reflection and
+    metadata lookups go through a realistic number of methods.
+*/
+@DesignerComponent(version = 1, category = ComponentCategory.USERINTERFACE, description = "Benchmark button")
+@SimpleObject
+public class BenchButton extends AndroidViewComponent {
+  private final View view = new View();
+  private String text = "";
+  private int width = -1;
+  private int height = -1;
+  private int fontSize = 14;
+  private int textColor = 0xFF000000;
+  private int backgroundColor = 0xFFFFFFFF;
+  private boolean enabled = true;
+  private boolean visible = true;
+  private boolean fontBold = false;
+  private String image = "";
+
+  @Override
+  public View getView() {
+    return view;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE, description = "Text of the button.")
+  public String Text() {
+    return text;
+  }
+
+  @DesignerProperty(editorType = "textArea", defaultValue = "")
+  @SimpleProperty
+  public void Text(String text) {
+    this.text = text;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public int Width() {
+    return width;
+  }
+
+  @SimpleProperty
+  public void Width(int width) {
+    this.width = width;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public int Height() {
+    return height;
+  }
+
+  @SimpleProperty
+  public void Height(int height) {
+    this.height = height;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public int FontSize() {
+    return fontSize;
+  }
+
+  @DesignerProperty(editorType = "non_negative_float", defaultValue = "14.0")
+  @SimpleProperty
+  public void FontSize(int fontSize) {
+    this.fontSize = fontSize;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public int TextColor() {
+    return textColor;
+  }
+
+  @DesignerProperty(editorType = "color", defaultValue = "&HFF000000")
+  @SimpleProperty
+  public void TextColor(int color) {
+    this.textColor = color;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public int BackgroundColor() {
+    return backgroundColor;
+  }
+
+  @DesignerProperty(editorType = "color", defaultValue = "&HFFFFFFFF")
+  @SimpleProperty
+  public void BackgroundColor(int color) {
+    this.backgroundColor = color;
+  }
+
+  @SimpleProperty(category = PropertyCategory.BEHAVIOR)
+  public boolean Enabled() {
+    return enabled;
+  }
+
+  @DesignerProperty(editorType = "boolean", defaultValue = "True")
+  @SimpleProperty
+  public void Enabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public boolean Visible() {
+    return visible;
+  }
+
+  @DesignerProperty(editorType = "visibility", defaultValue = "True")
+  @SimpleProperty
+  public void Visible(boolean visible) {
+    this.visible = visible;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public boolean FontBold() {
+    return fontBold;
+  }
+
+  @DesignerProperty(editorType = "boolean", defaultValue = "False")
+  @SimpleProperty
+  public void FontBold(boolean bold) {
+    this.fontBold = bold;
+  }
+
+  @SimpleProperty(category = PropertyCategory.APPEARANCE)
+  public String Image() {
+    return image;
+  }
+
+  @DesignerProperty(editorType = "asset", defaultValue = "")
+  @SimpleProperty
+  public void Image(String image) {
+    this.image = image;
+  }
+
+  @SimpleFunction(description = "Hides the keyboard.")
+  public void HideKeyboard() {
+  }
+
+  @SimpleFunction(description = "Moves the focus to the button.")
+  public void RequestFocus() {
+  }
+
+  @SimpleEvent(description = "User tapped and released the button.")
+  public void Click() {
+  }
+
+  @SimpleEvent(description = "User held the button down.")
+  public void LongClick() {
+  }
+
+  @SimpleEvent(description = "Button became the focused component.")
+  public void GotFocus() {
+  }
+
+  @SimpleEvent(description = "Button stopped being the focused component.")
+  public void LostFocus() {
+  }
+}
@@ -0,0 +1,57 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yusufcihan.DynamicComponents.classes.Utils;
+
+/*
+    Setting and getting properties by name, which is what the Set/Get
+    property blocks and schemas do for every property.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CallMethodBenchmark {
+  private BenchButton button;
+
+  @Setup
+  public void setup() {
+    button = new BenchButton();
+  }
+
+  @Benchmark
+  public Object setText() {
+    return Utils.callMethod(button, "Text", new Object[] { "Hello" });
+  }
+
+  // Numbers from blocks are doubles, so they need to be converted.
+  @Benchmark
+  public Object setWidthFromDouble() {
+    return Utils.callMethod(button, "Width", new Object[] { 120.0 });
+  }
+
+  // Text values from templates need to be parsed.
+  @Benchmark
+  public Object setEnabledFromText() {
+    return Utils.callMethod(button, "Enabled", new Object[] { "true" });
+  }
+
+  @Benchmark
+  public Object getText() {
+    return Utils.callMethod(button, "Text", new Object[] { });
+  }
+}
@@ -0,0 +1,46 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yusufcihan.DynamicComponents.classes.Utils;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassNameBenchmark {
+  private BenchButton button;
+
+  @Setup
+  public void setup() {
+    button = new BenchButton();
+  }
+
+  @Benchmark
+  public String stockName() {
+    return Utils.getClassName("Button");
+  }
+
+  @Benchmark
+  public String fullClassName() {
+    return Utils.getClassName("com.example.extension.Custom");
+  }
+
+  @Benchmark
+  public String componentBlock() {
+    return Utils.getClassName(button);
+  }
+}
@@ -0,0 +1,73 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.appinventor.components.annotations.SimpleEvent;
+import com.google.appinventor.components.annotations.SimpleFunction;
+import com.yusufcihan.DynamicComponents.classes.Metadata;
+
+/*
+    Reading the metadata of every component of a screen, as an app that
+    builds an inspector or saves the state of its components would do.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetadataBenchmark {
+  @Param({ "10", "100", "1000", "10000" })
+  public int components;
+
+  private BenchButton[] buttons;
+
+  @Setup
+  public void setup() {
+    buttons = new BenchButton[components];
+    for (int i = 0; i < components; i++) {
+      buttons[i] = new BenchButton();
+    }
+  }
+
+  @Benchmark
+  public void commonInfo(Blackhole blackhole) {
+    for (BenchButton button : buttons) {
+      blackhole.consume(Metadata.getComponentCommonInfo(button));
+    }
+  }
+
+  @Benchmark
+  public void functionInfo(Blackhole blackhole) throws Exception {
+    for (BenchButton button : buttons) {
+      blackhole.consume(Metadata.getComponentAnnotationInfo(button, SimpleFunction.class));
+    }
+  }
+
+  @Benchmark
+  public void eventInfo(Blackhole blackhole) throws Exception {
+    for (BenchButton button : buttons) {
+      blackhole.consume(Metadata.getComponentAnnotationInfo(button, SimpleEvent.class));
+    }
+  }
+
+  @Benchmark
+  public void propertyInfo(Blackhole blackhole) throws Exception {
+    for (BenchButton button : buttons) {
+      blackhole.consume(Metadata.getComponentPropertyInfo(button));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yusufcihan.DynamicComponents.classes.CompiledSchema;
+import com.yusufcihan.DynamicComponents.classes.Utils;
+
+/*
+    Flattening templates of different sizes, both in the old way with
+    org.json objects and with compiled schemas.
+*/
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaBenchmark {
+  @Param({ "10", "100", "1000", "10000" })
+  public int components;
+
+  private String template;
+  private JSONArray componentList;
+  private Map<String, Object> mapping;
+  private CompiledSchema compiled;
+
+  @Setup
+  public void setup() throws Exception {
+    template = Templates.template(components);
+    componentList = new JSONObject(template).getJSONArray("components");
+    mapping = Templates.formatMapping();
+    compiled = CompiledSchema.compile(template);
+  }
+
+  @Benchmark
+  public Object componentTreeToList() {
+    return Utils.componentTreeToList(componentList, mapping);
+  }
+
+  @Benchmark
+  public Object compile() throws Exception {
+    return CompiledSchema.compile(template);
+  }
+
+  @Benchmark
+  public Object bindCompiled() {
+    return compiled.bind(Templates.VALUES);
+  }
+}
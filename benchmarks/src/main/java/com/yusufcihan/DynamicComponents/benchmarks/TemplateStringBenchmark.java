@@ -0,0 +1,47 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yusufcihan.DynamicComponents.classes.Utils;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TemplateStringBenchmark {
+  private Map<String, Object> mapping;
+
+  @Setup
+  public void setup() {
+    mapping = Templates.formatMapping();
+  }
+
+  @Benchmark
+  public Object noParameters() {
+    return Utils.formatTemplateString("Button title", mapping);
+  }
+
+  @Benchmark
+  public Object singleParameter() {
+    return Utils.formatTemplateString("{color}", mapping);
+  }
+
+  @Benchmark
+  public Object mixedText() {
+    return Utils.formatTemplateString("{title}, the color is {color} and {unknown} is kept", mapping);
+  }
+}
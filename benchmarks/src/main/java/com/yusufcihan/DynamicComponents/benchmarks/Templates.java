@@ -0,0 +1,62 @@
+package com.yusufcihan.DynamicComponents.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/*
+    Generates templates in the same format as TemplateCreator writes
+    them. Components are arranged as rows of ten components, one
+    arrangement with nine buttons, and every button uses both of the
+    template parameters.
+*/
+final class Templates {
+  static final String[] KEYS = { "title", "color" };
+  static final Object[] VALUES = { "Hello", 0xFF2196F3 };
+
+  private Templates() {
+  }
+
+  static String template(int componentCount) {
+    final JSONArray components = new JSONArray();
+    JSONArray row = null;
+    for (int i = 0; i < componentCount; i++) {
+      if (i % 10 == 0) {
+        final JSONObject arrangement = new JSONObject();
+        arrangement.put("id", "row" + i);
+        arrangement.put("type", "HorizontalArrangement");
+        arrangement.put("properties", new JSONObject().put("Width", -2));
+        row = new JSONArray();
+        arrangement.put("components", row);
+        components.put(arrangement);
+      } else {
+        final JSONObject properties = new JSONObject();
+        properties.put("Text", "{title} " + i);
+        properties.put("TextColor", "{color}");
+        properties.put("FontSize", 16);
+        properties.put("Enabled", true);
+        final JSONObject button = new JSONObject();
+        button.put("id", "button" + i);
+        button.put("type", "Button");
+        button.put("properties", properties);
+        row.put(button);
+      }
+    }
+    final JSONObject template = new JSONObject();
+    template.put("metadata-version", 1);
+    template.put("name", "benchmark");
+    template.put("keys", new JSONArray(KEYS));
+    template.put("components", components);
+    return template.toString();
+  }
+
+  static Map<String, Object> formatMapping() {
+    final HashMap<String, Object> mapping = new HashMap<String, Object>();
+    for (int i = 0; i < KEYS.length; i++) {
+      mapping.put(KEYS[i], VALUES[i]);
+    }
+    return mapping;
+  }
+}
@@ -0,0 +1,27 @@
+package android.util;
+
+/*
+    Stand-in of the Android logger, messages are dropped so logging
+    doesn't affect the measurements.
+*/
+public final class Log {
+  public static int d(String tag, String message) {
+    return 0;
+  }
+
+  public static int i(String tag, String message) {
+    return 0;
+  }
+
+  public static int w(String tag, String message) {
+    return 0;
+  }
+
+  public static int e(String tag, String message) {
+    return 0;
+  }
+
+  public static int e(String tag, String message, Throwable throwable) {
+    return 0;
+  }
+}
@@ -0,0 +1,8 @@
+package android.view;
+
+/*
+    Stand-in of an Android view. Benchmarked code never draws, so it
+    doesn't have any state.
+*/
+public class View {
+}
@@ -0,0 +1,34 @@
+package com.google.appinventor.components.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.google.appinventor.components.common.ComponentCategory;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DesignerComponent {
+  int androidMinSdk() default 7;
+
+  ComponentCategory category() default ComponentCategory.UNINITIALIZED;
+
+  String dateBuilt() default "";
+
+  String description() default "";
+
+  String designerHelpDescription() default "";
+
+  String helpUrl() default "";
+
+  String iconName() default "";
+
+  boolean nonVisible() default false;
+
+  boolean showOnPalette() default true;
+
+  int version();
+
+  String versionName() default "";
+}
@@ -0,0 +1,8 @@
+package com.google.appinventor.components.annotations;
+
+public enum PropertyCategory {
+  BEHAVIOR,
+  APPEARANCE,
+  DEPRECATED,
+  UNSET
+}
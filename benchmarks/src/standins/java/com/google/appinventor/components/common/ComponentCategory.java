@@ -0,0 +1,8 @@
+package com.google.appinventor.components.common;
+
+public enum ComponentCategory {
+  UNINITIALIZED,
+  USERINTERFACE,
+  LAYOUT,
+  EXTENSION
+}
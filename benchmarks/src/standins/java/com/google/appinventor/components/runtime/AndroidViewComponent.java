@@ -0,0 +1,7 @@
+package com.google.appinventor.components.runtime;
+
+import android.view.View;
+
+public abstract class AndroidViewComponent implements Component {
+  public abstract View getView();
+}
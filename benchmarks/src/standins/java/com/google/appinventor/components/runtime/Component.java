@@ -0,0 +1,8 @@
+package com.google.appinventor.components.runtime;
+
+/*
+    Stand-in of the App Inventor component interface. Benchmarked code
+    only uses it as a type, so it doesn't declare any methods.
+*/
+public interface Component {
+}
@@ -0,0 +1,5 @@
+package com.google.appinventor.components.runtime;
+
+public interface ComponentContainer {
+  void $add(AndroidViewComponent component);
+}
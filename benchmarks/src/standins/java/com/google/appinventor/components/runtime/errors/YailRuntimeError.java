@@ -0,0 +1,14 @@
+package com.google.appinventor.components.runtime.errors;
+
+public class YailRuntimeError extends RuntimeException {
+  private final String errorType;
+
+  public YailRuntimeError(String message, String errorType) {
+    super(message);
+    this.errorType = errorType;
+  }
+
+  public String getErrorType() {
+    return errorType;
+  }
+}
@@ -0,0 +1,10 @@
+package com.google.appinventor.components.runtime.util;
+
+import java.util.LinkedHashMap;
+
+/*
+    Stand-in of the App Inventor dictionary, which is also an insertion
+    ordered map on Android.
+*/
+public class YailDictionary extends LinkedHashMap<Object, Object> {
+}
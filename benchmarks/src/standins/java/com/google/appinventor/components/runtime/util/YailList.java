@@ -0,0 +1,54 @@
+package com.google.appinventor.components.runtime.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/*
+    Stand-in of the App Inventor list. Like the real one, the first item
+    is the "*list*" header, which is counted by length() but not returned
+    from toArray() and size().
+*/
+public class YailList extends ArrayList<Object> {
+  private static final String HEADER = "*list*";
+
+  private YailList() {
+    super.add(HEADER);
+  }
+
+  public static YailList makeEmptyList() {
+    return new YailList();
+  }
+
+  public static YailList makeList(Collection<?> items) {
+    final YailList list = new YailList();
+    list.addAll(items);
+    return list;
+  }
+
+  public static YailList makeList(Object[] items) {
+    return makeList(Arrays.asList(items));
+  }
+
+  public int length() {
+    return super.size();
+  }
+
+  @Override
+  public int size() {
+    return super.size() - 1;
+  }
+
+  @Override
+  public Object[] toArray() {
+    return subList(1, length()).toArray();
+  }
+
+  public Object getObject(int index) {
+    return get(index + 1);
+  }
+
+  public String getString(int index) {
+    return String.valueOf(getObject(index));
+  }
+}
@@ -1,10 +1,22 @@
 package com.yusufcihan.DynamicComponents;
 
+import com.yusufcihan.DynamicComponents.classes.AsyncSchemaBuild;
+import com.yusufcihan.DynamicComponents.classes.BinarySchema;
+import com.yusufcihan.DynamicComponents.classes.CompiledSchema;
+import com.yusufcihan.DynamicComponents.classes.ComponentPool;
+import com.yusufcihan.DynamicComponents.classes.ComponentRegistry;
+import com.yusufcihan.DynamicComponents.classes.ComponentType;
+import com.yusufcihan.DynamicComponents.classes.ComponentTypes;
+import com.yusufcihan.DynamicComponents.classes.MainThreadBatch;
 import com.yusufcihan.DynamicComponents.classes.Utils;
+import com.yusufcihan.DynamicComponents.classes.VirtualList;
 import com.yusufcihan.DynamicComponents.classes.Metadata;
+import com.yusufcihan.DynamicComponents.classes.MethodCache;
+import com.yusufcihan.DynamicComponents.classes.SchemaCache;
+import com.yusufcihan.DynamicComponents.classes.SchemaStreamReader;
+import com.yusufcihan.DynamicComponents.classes.Stats;
 
-import android.os.Handler;
-import android.os.Looper;
+import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -21,23 +33,32 @@ import com.google.appinventor.components.runtime.AndroidViewComponent;
 import com.google.appinventor.components.runtime.Component;
 import com.google.appinventor.components.runtime.ComponentContainer;
 import com.google.appinventor.components.runtime.EventDispatcher;
+import com.google.appinventor.components.runtime.OnDestroyListener;
 import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+import com.google.appinventor.components.runtime.util.AsynchUtil;
+import com.google.appinventor.components.runtime.util.MediaUtil;
 import com.google.appinventor.components.runtime.util.YailDictionary;
 import com.google.appinventor.components.runtime.util.YailList;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.lang.reflect.Constructor;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.UUID;
 
+import org.json.JSONException;
+
 @DesignerComponent(
         description =
           "Create any component available in your App Inventor distribution and create instances of " +
@@ -50,46 +71,197 @@ import java.util.UUID;
         versionName = "2.3.1"
 )
 @SimpleObject(external = true)
-public class DynamicComponents extends AndroidNonvisibleComponent {
+public class DynamicComponents extends AndroidNonvisibleComponent implements OnDestroyListener {
   private static final String TAG = Utils.TAG;
 
   // Whether component creation should happen on the UI thread
   private boolean postOnUiThread = false;
 
-  // Components created with Dynamic Components
-  private final HashMap<String, Component> COMPONENTS = new HashMap<>();
+  // Work posted to the UI thread, collected into a single message during bulk operations
+  private final MainThreadBatch uiBatch = new MainThreadBatch();
+
+  // Components created with Dynamic Components, with their IDs and containers
+  private final ComponentRegistry COMPONENTS = new ComponentRegistry();
+
+  // Removed components kept for reuse, disabled unless a pool size is set
+  private final ComponentPool recyclePool = new ComponentPool();
+
+  // Schemas applied with ApplySchema, by the container they have been applied to
+  private final IdentityHashMap<AndroidViewComponent, LinkedHashMap<String, CompiledSchema.BoundNode>> APPLIED_SCHEMAS =
+    new IdentityHashMap<>();
 
-  // IDs of components created with Dynamic Components
-  private final HashMap<Component, String> COMPONENT_IDS = new HashMap<>();
+  // Property writes of dynamic components queued between BeginUpdate and CommitUpdate,
+  // one level for each nested transaction, the innermost one is the last
+  private final ArrayList<LinkedHashMap<ComponentRegistry.Entry, LinkedHashMap<String, Object>>> queuedUpdates =
+    new ArrayList<>();
+
+  // Virtual lists created with Dynamic Components
+  private final HashMap<String, VirtualList> VIRTUAL_LISTS = new HashMap<>();
+
+  // Creates the row components of virtual lists right away, regardless of the thread setting
+  private final VirtualList.Host virtualListHost = new VirtualList.Host() {
+    @Override
+    public Component createRowComponent(AndroidViewComponent in, String parentId, String type, String id) {
+      if (COMPONENTS.contains(id)) {
+        throw new YailRuntimeError("All component IDs must be unique, the component ID '" + id + "' has already used before.", TAG);
+      }
+      return createInstance(parentId == null ? in : (AndroidViewComponent) COMPONENTS.get(parentId), ComponentTypes.resolve(type), id, null);
+    }
+
+    @Override
+    public void setRowProperties(Component component, Map<String, Object> properties) {
+      for (Map.Entry<String, Object> property : properties.entrySet()) {
+        Utils.callMethod(component, property.getKey(), new Object[] { property.getValue() });
+      }
+    }
+
+    @Override
+    public void removeRowComponent(Component component) {
+      COMPONENTS.unregister(component);
+      if (component instanceof AndroidViewComponent) {
+        final View mComponent = ((AndroidViewComponent) component).getView();
+        if (mComponent != null && mComponent.getParent() != null) {
+          ((ViewGroup) mComponent.getParent()).removeView(mComponent);
+        }
+      }
+      destroyComponent(component);
+    }
+  };
+
+  // Schemas that are being created in chunks with SchemaAsync, by their build IDs
+  private final HashMap<String, AsyncSchemaBuild> ASYNC_BUILDS = new HashMap<>();
+
+  // Time in milliseconds that each chunk of an asynchronous schema build can take
+  private int asyncFrameBudget = 8;
+
+  private final AsyncSchemaBuild.Host asyncBuildHost = new AsyncSchemaBuild.Host() {
+    @Override
+    public void createComponent(AndroidViewComponent in, CompiledSchema.BoundNode node) {
+      if (batchBuiltEvents && asyncBuiltComponents == null) {
+        asyncBuiltComponents = new BuiltComponents();
+      }
+      final BuiltComponents mOuter = builtComponents;
+      builtComponents = asyncBuiltComponents;
+      try {
+        lastUsedId = node.id;
+        createInstance(
+          node.parentId == null ? in : (AndroidViewComponent) COMPONENTS.get(node.parentId),
+          ComponentTypes.resolve(node.type),
+          node.id,
+          node.properties
+        );
+      } finally {
+        builtComponents = mOuter;
+      }
+    }
+
+    @Override
+    public void removeComponent(String id) {
+      Remove(id);
+    }
+
+    @Override
+    public void onProgress(AsyncSchemaBuild build, int created, int total) {
+      final BuiltComponents mBuilt = asyncBuiltComponents;
+      asyncBuiltComponents = null;
+      reportBuilt(mBuilt);
+      SchemaProgress(build.getId(), build.getName(), created, total);
+    }
+
+    @Override
+    public void onFinished(AsyncSchemaBuild build) {
+      ASYNC_BUILDS.remove(build.getId());
+      SchemaCreated(build.getName(), build.getParameters());
+    }
+
+    @Override
+    public void onCancelled(AsyncSchemaBuild build, int created) {
+      // The components of the chunk have been removed already.
+      asyncBuiltComponents = null;
+      ASYNC_BUILDS.remove(build.getId());
+      SchemaCancelled(build.getId(), build.getName(), created);
+    }
+  };
 
   private Object lastUsedId = "";
-  private final ArrayList<ComponentListener> componentListeners = new ArrayList<>();
+
+  private String prewarmTypes = "";
+
+  // Compiled schemas kept on the disk, or null if the cache is disabled
+  private SchemaCache schemaCache = null;
+
+  // Interval of the StatsReported event in milliseconds, zero if it is disabled
+  private int statsReportInterval = 0;
+
+  private final Runnable statsReporter = new Runnable() {
+    @Override
+    public void run() {
+      StatsReported(Stats.getStats());
+      uiBatch.getHandler().postDelayed(this, statsReportInterval);
+    }
+  };
+
+  /*
+      Components created during a bulk creation while 'BatchComponentBuiltEvents'
+      is enabled, which are reported with a single 'ComponentsBuilt' event.
+  */
+  private static final class BuiltComponents {
+    final ArrayList<Component> components = new ArrayList<>();
+    final ArrayList<String> ids = new ArrayList<>();
+    final ArrayList<String> types = new ArrayList<>();
+  }
+
+  private boolean batchBuiltEvents = false;
+
+  // Collects the components of the running bulk creation, or null if they are reported one by one
+  private BuiltComponents builtComponents = null;
+  private int bulkDepth = 0;
+
+  // Collects the components of the current chunk of a SchemaAsync build
+  private BuiltComponents asyncBuiltComponents = null;
 
   public DynamicComponents(ComponentContainer container) {
     super(container.$form());
+    form.registerForOnDestroy(this);
   }
 
-  interface ComponentListener {
-    void onCreation(Component component, String id);
+  @Override
+  public void onDestroy() {
+    // The reporter and asynchronous builds repost themselves, so they would keep the screen alive after it has been closed.
+    uiBatch.getHandler().removeCallbacks(statsReporter);
+    for (AsyncSchemaBuild build : ASYNC_BUILDS.values()) {
+      build.stop();
+    }
+    ASYNC_BUILDS.clear();
+    // The scroll view can outlive the screen, and its listeners refer to the lists.
+    for (VirtualList list : VIRTUAL_LISTS.values()) {
+      list.detach();
+    }
+    VIRTUAL_LISTS.clear();
   }
 
   public boolean isCreatedComponent(String id) {
-    return COMPONENTS.containsKey(id);
+    return COMPONENTS.contains(id);
   }
 
-  public void notifyListenersOfCreation(Component component, String id) {
-    for (ComponentListener listener : componentListeners) {
-      listener.onCreation(component, id);
+  private void applyProperties(Component component, Map<String, Object> properties) {
+    for (Map.Entry<String, Object> property : properties.entrySet()) {
+      Utils.callMethod(component, property.getKey(), new Object[] { property.getValue() });
     }
   }
 
   private void dispatchEvent(final String name, final Object... parameters) {
-    new Handler(Looper.getMainLooper()).post(new Runnable() {
+    final Runnable event = new Runnable() {
       @Override
       public void run() {
         EventDispatcher.dispatchEvent(DynamicComponents.this, name, parameters);
       }
-    });
+    };
+    // Events raised while a batch is running are dispatched at the end of it.
+    if (!uiBatch.defer(event)) {
+      Stats.count("ui.post");
+      uiBatch.getHandler().post(event);
+    }
   }
 
   @DesignerProperty(
@@ -108,42 +280,347 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     }
   }
 
+  @DesignerProperty(
+    defaultValue = "0",
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER
+  )
+  @SimpleProperty(description =
+    "The maximum amount of removed components that will be kept for each component type to be " +
+    "used again by the next creation of the same type in the same container. Zero (0) disables recycling."
+  )
+  public void RecyclePoolSize(int size) {
+    for (Component component : recyclePool.setCapacity(size)) {
+      destroyComponent(component);
+    }
+  }
+
+  @SimpleProperty
+  public int RecyclePoolSize() {
+    return recyclePool.getCapacity();
+  }
+
+  @DesignerProperty(
+    defaultValue = "False",
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_BOOLEAN
+  )
+  @SimpleProperty(description =
+    "If enabled, components created by schemas are reported with a single 'ComponentsBuilt' event at the end " +
+    "of the schema (or of each chunk of 'SchemaAsync') instead of calling 'ComponentBuilt' for each of them."
+  )
+  public void BatchComponentBuiltEvents(boolean enabled) {
+    batchBuiltEvents = enabled;
+  }
+
+  @SimpleProperty
+  public boolean BatchComponentBuiltEvents() {
+    return batchBuiltEvents;
+  }
+
+  @DesignerProperty(
+    defaultValue = "8",
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER
+  )
+  @SimpleProperty(description =
+    "The time in milliseconds that 'SchemaAsync' can spend creating components before letting the screen " +
+    "draw a frame. At least one component is created each time, even if it is zero (0)."
+  )
+  public void AsyncFrameBudget(int milliseconds) {
+    asyncFrameBudget = Math.max(0, milliseconds);
+  }
+
+  @SimpleProperty
+  public int AsyncFrameBudget() {
+    return asyncFrameBudget;
+  }
+
+  @DesignerProperty(
+    defaultValue = "",
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_STRING
+  )
+  @SimpleProperty(description =
+    "Comma separated names of component types that will be prepared in the background when the screen " +
+    "starts, in the same way as the 'Prewarm' block."
+  )
+  public void PrewarmTypes(String types) {
+    prewarmTypes = types;
+    final ArrayList<Object> mTypes = new ArrayList<>();
+    for (String type : types.split(",")) {
+      if (!type.trim().isEmpty()) {
+        mTypes.add(type.trim());
+      }
+    }
+    if (!mTypes.isEmpty()) {
+      prewarm(mTypes);
+    }
+  }
+
+  @SimpleProperty
+  public String PrewarmTypes() {
+    return prewarmTypes;
+  }
+
+  @DesignerProperty(
+    defaultValue = "0",
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER
+  )
+  @SimpleProperty(description =
+    "The maximum size in kilobytes of the compiled templates that are kept in the app storage, so the same " +
+    "templates don't need to be parsed again after the app is restarted. Templates that haven't been used " +
+    "recently are removed first. Zero (0) disables the cache."
+  )
+  public void SchemaCacheSize(int kilobytes) {
+    if (kilobytes <= 0) {
+      schemaCache = null;
+    } else if (schemaCache == null) {
+      final SchemaCache mCache = new SchemaCache(new File(form.getCacheDir(), "DynamicComponents"), kilobytes * 1024L);
+      AsynchUtil.runAsynchronously(new Runnable() {
+        @Override
+        public void run() {
+          mCache.deleteOtherRevisions();
+        }
+      });
+      schemaCache = mCache;
+    } else {
+      final SchemaCache mCache = schemaCache;
+      mCache.setMaxBytes(kilobytes * 1024L);
+      AsynchUtil.runAsynchronously(new Runnable() {
+        @Override
+        public void run() {
+          mCache.trim();
+        }
+      });
+    }
+  }
+
+  @SimpleProperty
+  public int SchemaCacheSize() {
+    return schemaCache == null ? 0 : (int) (schemaCache.getMaxBytes() / 1024);
+  }
+
+  @DesignerProperty(
+    defaultValue = "Off",
+    editorArgs = {"Off", "On", "Sampled"},
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_CHOICES
+  )
+  @SimpleProperty(description =
+    "Whether counters and timings returned from 'GetStats' are recorded. 'Sampled' only records one of every " +
+    "16 events to keep the overhead low. The statistics are shared by all Dynamic Components instances."
+  )
+  public void StatsMode(String mode) {
+    if (mode.equalsIgnoreCase("Off")) {
+      Stats.setMode(Stats.OFF);
+    } else if (mode.equalsIgnoreCase("On")) {
+      Stats.setMode(Stats.ON);
+    } else if (mode.equalsIgnoreCase("Sampled")) {
+      Stats.setMode(Stats.SAMPLED);
+    } else {
+      throw new YailRuntimeError("Unexpected value '" + mode + "'", TAG);
+    }
+  }
+
+  @SimpleProperty
+  public String StatsMode() {
+    final int mode = Stats.getMode();
+    return mode == Stats.ON ? "On" : mode == Stats.SAMPLED ? "Sampled" : "Off";
+  }
+
+  @DesignerProperty(
+    defaultValue = "0",
+    editorType = PropertyTypeConstants.PROPERTY_TYPE_NON_NEGATIVE_INTEGER
+  )
+  @SimpleProperty(description =
+    "The interval in milliseconds that the 'StatsReported' event is called in. Zero (0) disables the event."
+  )
+  public void StatsReportInterval(int milliseconds) {
+    statsReportInterval = Math.max(0, milliseconds);
+    uiBatch.getHandler().removeCallbacks(statsReporter);
+    if (statsReportInterval > 0) {
+      uiBatch.getHandler().postDelayed(statsReporter, statsReportInterval);
+    }
+  }
+
+  @SimpleProperty
+  public int StatsReportInterval() {
+    return statsReportInterval;
+  }
+
   @SimpleEvent(description = "Is called after a component has been created.")
   public void ComponentBuilt(final Component component, final String id, final String type) {
     dispatchEvent("ComponentBuilt", component, id, type);
   }
 
+  @SimpleEvent(description =
+    "Is called instead of 'ComponentBuilt' when 'BatchComponentBuiltEvents' is enabled, with all components " +
+    "that have been created by a schema, and their IDs and types in the same order."
+  )
+  public void ComponentsBuilt(final YailList components, final YailList ids, final YailList types) {
+    dispatchEvent("ComponentsBuilt", components, ids, types);
+  }
+
   @SimpleEvent(description = "Is called after a schema has/mostly finished component creation.")
   public void SchemaCreated(final String name, final YailList parameters) {
     dispatchEvent("SchemaCreated", name, parameters);
   }
 
-  @SimpleFunction(description = "Assign a new ID to a previously created dynamic component.")
-  public void ChangeId(String id, String newId) {
-    if (checkBeforeReplacement(id, newId)) {
-      for (String mId : COMPONENTS.keySet()) {
-        if (mId.contains(id)) {
-          Component mComponent = COMPONENTS.get(mId);
-          String mReplacementId = mId.replace(id, newId);
-          COMPONENT_IDS.remove(mComponent);
-          COMPONENTS.put(mReplacementId, COMPONENTS.remove(mId));
-          COMPONENT_IDS.put(mComponent, mReplacementId);
+  @SimpleEvent(description =
+    "Is called while a schema created with 'SchemaAsync' is being built, with the amount of components " +
+    "that have been created so far and the total amount of components in the schema."
+  )
+  public void SchemaProgress(final String buildId, final String name, final int created, final int total) {
+    dispatchEvent("SchemaProgress", buildId, name, created, total);
+  }
+
+  @SimpleEvent(description =
+    "Is called after a schema build started with 'SchemaAsync' has been cancelled, and the components " +
+    "it has created so far have been removed."
+  )
+  public void SchemaCancelled(final String buildId, final String name, final int created) {
+    dispatchEvent("SchemaCancelled", buildId, name, created);
+  }
+
+  @SimpleEvent(description =
+    "Is called after the component types given to 'Prewarm' (or the 'PrewarmTypes' property) have been " +
+    "prepared. Types that couldn't be found are given in the second list."
+  )
+  public void PrewarmCompleted(final YailList types, final YailList failed) {
+    dispatchEvent("PrewarmCompleted", types, failed);
+  }
+
+  @SimpleEvent(description = "Is called periodically with the same statistics that 'GetStats' returns.")
+  public void StatsReported(final YailDictionary stats) {
+    dispatchEvent("StatsReported", stats);
+  }
+
+  @SimpleFunction(description =
+    "Applies a template (or a compiled schema) to the given container by only changing what is different from " +
+    "the last time a schema has been applied to the same container. Components that are not in the schema " +
+    "anymore are removed, new components are created, and only the properties whose values have changed are set."
+  )
+  public void ApplySchema(AndroidViewComponent in, Object schema, YailList parameters) throws Exception {
+    final CompiledSchema mSchema = schema instanceof CompiledSchema
+      ? (CompiledSchema) schema
+      : compile(String.valueOf(schema));
+    final LinkedHashMap<String, CompiledSchema.BoundNode> mNodes = new LinkedHashMap<>();
+    for (CompiledSchema.BoundNode node : mSchema.bind(parameters.toArray())) {
+      mNodes.put(node.id, node);
+    }
+    // A copy, as removing the components below also removes their nodes from the applied schema.
+    final LinkedHashMap<String, CompiledSchema.BoundNode> mPrevious = new LinkedHashMap<>();
+    if (APPLIED_SCHEMAS.containsKey(in)) {
+      mPrevious.putAll(APPLIED_SCHEMAS.get(in));
+    }
+
+    uiBatch.begin();
+    beginBulk();
+    try {
+      // Remove the components that are gone, or that need to be created again in another way.
+      for (CompiledSchema.BoundNode previous : mPrevious.values()) {
+        final CompiledSchema.BoundNode node = mNodes.get(previous.id);
+        if (node == null || !node.type.equals(previous.type) || !equal(node.parentId, previous.parentId)) {
+          Remove(previous.id);
+        }
+      }
+      for (CompiledSchema.BoundNode node : mNodes.values()) {
+        final Component mComponent = COMPONENTS.get(node.id);
+        final CompiledSchema.BoundNode previous = mPrevious.get(node.id);
+        if (mComponent == null) {
+          createFromBoundNodes(in, new CompiledSchema.BoundNode[] { node });
+        } else {
+          final Map<String, Object> mChanged = new LinkedHashMap<>();
+          for (Map.Entry<String, Object> property : node.properties.entrySet()) {
+            if (previous == null || !previous.properties.containsKey(property.getKey())
+                || !equal(previous.properties.get(property.getKey()), property.getValue())) {
+              mChanged.put(property.getKey(), property.getValue());
+            }
+          }
+          if (!mChanged.isEmpty()) {
+            setPropertiesOnUiThread(mComponent, mChanged);
+          }
         }
       }
+    } finally {
+      endBulk();
+      uiBatch.end();
+    }
+    APPLIED_SCHEMAS.put(in, mNodes);
+    SchemaCreated(mSchema.name, parameters);
+  }
+
+  private void setPropertiesOnUiThread(final Component component, final Map<String, Object> properties) {
+    final Runnable update = new Runnable() {
+      @Override
+      public void run() {
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+          Utils.callMethod(component, property.getKey(), new Object[] { property.getValue() });
+        }
+      }
+    };
+    if (postOnUiThread) {
+      uiBatch.post(update);
+    } else {
+      update.run();
+    }
+  }
+
+  private static boolean equal(Object a, Object b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  @SimpleFunction(description =
+    "Starts an update transaction. Until 'CommitUpdate' is called, properties of dynamic components that are set " +
+    "with 'SetProperty' and 'SetProperties' are queued instead of being set right away. Transactions can be nested, " +
+    "committing a nested transaction moves its properties to the outer one."
+  )
+  public void BeginUpdate() {
+    queuedUpdates.add(new LinkedHashMap<ComponentRegistry.Entry, LinkedHashMap<String, Object>>());
+  }
+
+  @SimpleFunction(description =
+    "Assign a new ID to a previously created dynamic component. Components whose IDs start with the old ID " +
+    "and a dot (like 'card4.title' for 'card4') are also renamed by replacing that beginning of their IDs with the new ID."
+  )
+  public void ChangeId(String id, String newId) {
+    if (checkBeforeReplacement(id, newId) && !COMPONENTS.renameSubtree(id, newId)) {
+      throw new YailRuntimeError("Some of the IDs that start with '" + newId + "' are already taken.", TAG);
     }
   }
 
+  @SimpleFunction(description = "Returns the IDs of all components whose IDs start with the given prefix, as a list.")
+  public YailList IdsWithPrefix(String prefix) {
+    return YailList.makeList(COMPONENTS.idsWithPrefix(prefix));
+  }
+
   @SimpleFunction(description = "Replace an existing ID with a new one.")
   public void ReplaceId(String id, String newId) {
     if (checkBeforeReplacement(id, newId)) {
-      final Component component = COMPONENTS.get(id);
-      COMPONENTS.remove(id);
-      COMPONENT_IDS.remove(component);
-      COMPONENTS.put(newId, component);
-      COMPONENT_IDS.put(component, newId);
+      COMPONENTS.rename(id, newId);
     }
   }
 
+  /*
+      Queue a property write if an update transaction is open and the
+      component is a dynamic component. Returns false if it needs to be
+      set right away instead.
+  */
+  private boolean queueUpdate(Component component, String name, Object value) {
+    if (queuedUpdates.isEmpty()) {
+      return false;
+    }
+    final ComponentRegistry.Entry mEntry = COMPONENTS.getEntry(component);
+    if (mEntry == null) {
+      return false;
+    }
+    final LinkedHashMap<ComponentRegistry.Entry, LinkedHashMap<String, Object>> mLevel =
+      queuedUpdates.get(queuedUpdates.size() - 1);
+    LinkedHashMap<String, Object> mProperties = mLevel.get(mEntry);
+    if (mProperties == null) {
+      mProperties = new LinkedHashMap<>();
+      mLevel.put(mEntry, mProperties);
+    }
+    mProperties.put(name, value);
+    return true;
+  }
+
   private boolean checkBeforeReplacement(String id, String newId) {
     if (isCreatedComponent(id) && !isCreatedComponent(newId)) {
       return true;
@@ -154,6 +631,125 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     );
   }
 
+  @SimpleFunction(description =
+    "Ends an update transaction and sets all queued properties at once. Only the last value of each property " +
+    "is set, and the layout of each affected component tree is requested once after all of them have been set."
+  )
+  public void CommitUpdate() {
+    if (queuedUpdates.isEmpty()) {
+      return;
+    }
+    final LinkedHashMap<ComponentRegistry.Entry, LinkedHashMap<String, Object>> mUpdates =
+      queuedUpdates.remove(queuedUpdates.size() - 1);
+    if (!queuedUpdates.isEmpty()) {
+      // A nested transaction, its properties are set when the outer one is committed.
+      final LinkedHashMap<ComponentRegistry.Entry, LinkedHashMap<String, Object>> mOuter =
+        queuedUpdates.get(queuedUpdates.size() - 1);
+      for (Map.Entry<ComponentRegistry.Entry, LinkedHashMap<String, Object>> update : mUpdates.entrySet()) {
+        final LinkedHashMap<String, Object> mProperties = mOuter.get(update.getKey());
+        if (mProperties == null) {
+          mOuter.put(update.getKey(), update.getValue());
+        } else {
+          mProperties.putAll(update.getValue());
+        }
+      }
+      return;
+    }
+    final Runnable commit = new Runnable() {
+      @Override
+      public void run() {
+        final LinkedHashSet<View> mRoots = new LinkedHashSet<>();
+        for (Map.Entry<ComponentRegistry.Entry, LinkedHashMap<String, Object>> update : mUpdates.entrySet()) {
+          final ComponentRegistry.Entry mEntry = update.getKey();
+          // Skip the components that have been removed since.
+          if (!COMPONENTS.contains(mEntry.component)) {
+            continue;
+          }
+          for (Map.Entry<String, Object> property : update.getValue().entrySet()) {
+            Utils.callMethod(mEntry.component, property.getKey(), new Object[] { property.getValue() });
+          }
+          ComponentRegistry.Entry mRoot = mEntry;
+          while (mRoot.parent != null) {
+            mRoot = mRoot.parent;
+          }
+          if (mRoot.component instanceof AndroidViewComponent) {
+            mRoots.add(((AndroidViewComponent) mRoot.component).getView());
+          }
+        }
+        for (View mRoot : mRoots) {
+          mRoot.requestLayout();
+        }
+      }
+    };
+    if (postOnUiThread) {
+      uiBatch.post(commit);
+    } else {
+      commit.run();
+    }
+  }
+
+  @SimpleFunction(description =
+    "Ends an update transaction without setting the properties queued in it. If it is a nested transaction, " +
+    "the outer transaction stays open with the properties that have been queued in it."
+  )
+  public void CancelUpdate() {
+    if (!queuedUpdates.isEmpty()) {
+      queuedUpdates.remove(queuedUpdates.size() - 1);
+    }
+  }
+
+  @SimpleFunction(description =
+    "Parses and validates a JSON template once and returns it as a compiled schema, which can be " +
+    "used with the 'CreateFromCompiled' block to create the same template many times without " +
+    "reading the JSON again."
+  )
+  public Object CompileSchema(String template) throws Exception {
+    return compile(template);
+  }
+
+  /*
+      Compile a template, or read it from the schema cache if it has
+      been compiled before. New schemas are written to the cache in the
+      background.
+  */
+  private CompiledSchema compile(final String template) throws JSONException {
+    final SchemaCache mCache = schemaCache;
+    if (mCache == null) {
+      return CompiledSchema.compile(template);
+    }
+    final CompiledSchema mCached = mCache.get(template);
+    if (mCached != null) {
+      return mCached;
+    }
+    final CompiledSchema mSchema = CompiledSchema.compile(template);
+    AsynchUtil.runAsynchronously(new Runnable() {
+      @Override
+      public void run() {
+        mCache.put(template, mSchema);
+      }
+    });
+    return mSchema;
+  }
+
+  @SimpleFunction(description = "Clears all recorded statistics.")
+  public void ResetStats() {
+    Stats.reset();
+  }
+
+  @SimpleFunction(description =
+    "Loads a compiled schema from a binary schema file (.dcs) that has been generated with TemplateCreator, " +
+    "from an asset or a file path. The returned schema can be used in the same way as the result of " +
+    "'CompileSchema', without parsing the JSON template."
+  )
+  public Object LoadCompiledSchema(String path) throws Exception {
+    final InputStream mStream = MediaUtil.openMedia(form, path);
+    try {
+      return BinarySchema.read(mStream);
+    } finally {
+      mStream.close();
+    }
+  }
+
   @SimpleFunction(description =
     "Creates a new dynamic component in given container (arrangement/canvas) and assign to an ID to reference " +
     "the created component later. The 'ComponentBuilt' event will be invoked when the component has created. " +
@@ -161,33 +757,146 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     "inside a Screen to do that."
   )
   public void Create(final AndroidViewComponent in, Object componentName, final String id) throws Exception {
-    if (!COMPONENTS.containsKey(id)) {
+    create(in, null, componentName, id, null);
+  }
+
+  /*
+      Create a component in the given container, or in the component with
+      "parentId" if it is set. The parent is looked up when the component is
+      actually created, so components that are created in the same batch
+      can be used as parents of the components that come after them.
+      The properties (which can be null) are set right after creating it.
+  */
+  private void create(final AndroidViewComponent in, final String parentId, Object componentName, final String id,
+                      final Map<String, Object> properties) {
+    if (!COMPONENTS.contains(id)) {
       lastUsedId = id;
-      Class<?> mClass = Class.forName(Utils.getClassName(componentName));
-      final Constructor<?> mConstructor = mClass.getConstructor(ComponentContainer.class);
+      final ComponentType mType = ComponentTypes.resolve(componentName);
       if (postOnUiThread) {
-        new Handler(Looper.getMainLooper()).post(new Runnable() {
+        uiBatch.post(new Runnable() {
           @Override
           public void run() {
-            Component mComponent = Utils.createInstance(mConstructor, in);
-            COMPONENT_IDS.put(mComponent, id);
-            COMPONENTS.put(id, mComponent);
-            notifyListenersOfCreation(mComponent, id);
-            ComponentBuilt(mComponent, id, mComponent.getClass().getSimpleName());
+            createInstance(parentId == null ? in : (AndroidViewComponent) COMPONENTS.get(parentId), mType, id, properties);
           }
         });
       } else {
-        Component mComponent = Utils.createInstance(mConstructor, in);
-        COMPONENT_IDS.put(mComponent, id);
-        COMPONENTS.put(id, mComponent);
-        notifyListenersOfCreation(mComponent, id);
-        ComponentBuilt(mComponent, id, mComponent.getClass().getSimpleName());
+        createInstance(parentId == null ? in : (AndroidViewComponent) COMPONENTS.get(parentId), mType, id, properties);
       }
     } else {
       throw new YailRuntimeError("All component IDs must be unique, the component ID '" + id + "' has already used before.", TAG);
     }
   }
 
+  private Component createInstance(AndroidViewComponent in, ComponentType mType, String id, Map<String, Object> properties) {
+    final long mBegin = Stats.begin();
+    Component mComponent = recyclePool.take(mType.type, in);
+    if (mComponent != null) {
+      ((ComponentContainer) in).$add((AndroidViewComponent) mComponent);
+    } else {
+      mComponent = Utils.createInstance(mType, in);
+    }
+    if (!COMPONENTS.register(id, mComponent, in)) {
+      throw new YailRuntimeError("All component IDs must be unique, the component ID '" + id + "' has already used before.", TAG);
+    }
+    if (properties != null) {
+      applyProperties(mComponent, properties);
+    }
+    if (mBegin != Stats.NOT_RECORDED) {
+      Stats.end("create." + mType.simpleName, mBegin);
+    }
+    if (builtComponents != null) {
+      builtComponents.components.add(mComponent);
+      builtComponents.ids.add(id);
+      builtComponents.types.add(mType.simpleName);
+    } else {
+      ComponentBuilt(mComponent, id, mType.simpleName);
+    }
+    return mComponent;
+  }
+
+  /*
+      Start a bulk creation. It runs on the same thread as the component
+      creations, so in the "UI" mode it is run in order with them in the
+      same batch. Bulk creations can be nested, only the outermost one
+      reports the components.
+  */
+  private void beginBulk() {
+    runWithCreations(new Runnable() {
+      @Override
+      public void run() {
+        if (bulkDepth++ == 0 && batchBuiltEvents) {
+          builtComponents = new BuiltComponents();
+        }
+      }
+    });
+  }
+
+  /*
+      End a bulk creation. In the "UI" mode it is also run if one of the
+      creations before it in the batch fails, otherwise the components
+      created after that would never be reported.
+  */
+  private void endBulk() {
+    final Runnable mEnd = new Runnable() {
+      @Override
+      public void run() {
+        if (bulkDepth > 0 && --bulkDepth == 0) {
+          final BuiltComponents mBuilt = builtComponents;
+          builtComponents = null;
+          reportBuilt(mBuilt);
+        }
+      }
+    };
+    if (postOnUiThread) {
+      uiBatch.postFinally(mEnd);
+    } else {
+      mEnd.run();
+    }
+  }
+
+  private void runWithCreations(Runnable runnable) {
+    if (postOnUiThread) {
+      uiBatch.post(runnable);
+    } else {
+      runnable.run();
+    }
+  }
+
+  private void reportBuilt(BuiltComponents built) {
+    if (built != null && !built.components.isEmpty()) {
+      ComponentsBuilt(YailList.makeList(built.components), YailList.makeList(built.ids), YailList.makeList(built.types));
+    }
+  }
+
+  @SimpleFunction(description =
+    "Create components in bulk from a schema compiled with the 'CompileSchema' block. Parameters " +
+    "are given in the same way as the 'Schema' block."
+  )
+  public void CreateFromCompiled(AndroidViewComponent in, Object schema, YailList parameters) throws Exception {
+    if (!(schema instanceof CompiledSchema)) {
+      throw new YailRuntimeError("The given schema is not a compiled schema, use the 'CompileSchema' block first.", TAG);
+    }
+    createFromSchema(in, (CompiledSchema) schema, parameters);
+  }
+
+  @SimpleFunction(description =
+    "Creates a virtual list in the given vertical scroll arrangement. Each row is created from the given " +
+    "template (or compiled schema) with the parameters of that row, but only the rows near the visible area " +
+    "have components, which are reused for other rows while scrolling. All rows must have the same height " +
+    "in pixels. IDs of the row components are in the '<list id>.<slot>.<template id>' format."
+  )
+  public void CreateVirtualList(AndroidViewComponent in, String id, Object schema, YailList rows, int rowHeight) throws Exception {
+    if (VIRTUAL_LISTS.containsKey(id)) {
+      throw new YailRuntimeError("A virtual list with the ID '" + id + "' already exists.", TAG);
+    }
+    final CompiledSchema mSchema = schema instanceof CompiledSchema
+      ? (CompiledSchema) schema
+      : compile(String.valueOf(schema));
+    final VirtualList mList = new VirtualList(id, in, mSchema, rowHeight, virtualListHost);
+    VIRTUAL_LISTS.put(id, mList);
+    mList.setRows(rows);
+  }
+
   @SimpleFunction(description =
     "Creates a new dynamic component synchronously in the given container (arrangement/canvas), " +
     "registers it internally, and returns the component object directly. " +
@@ -199,16 +908,9 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
       actualId = GenerateID();
     }
 
-    if (!COMPONENTS.containsKey(actualId)) {
+    if (!COMPONENTS.contains(actualId)) {
       lastUsedId = actualId;
-      Class<?> mClass = Class.forName(Utils.getClassName(componentName));
-      final Constructor<?> mConstructor = mClass.getConstructor(ComponentContainer.class);
-      Component mComponent = Utils.createInstance(mConstructor, in);
-      COMPONENT_IDS.put(mComponent, actualId);
-      COMPONENTS.put(actualId, mComponent);
-      notifyListenersOfCreation(mComponent, actualId);
-      ComponentBuilt(mComponent, actualId, mComponent.getClass().getSimpleName());
-      return mComponent;
+      return createInstance(in, ComponentTypes.resolve(componentName), actualId, null);
     } else {
       throw new YailRuntimeError("All component IDs must be unique, the component ID '" + actualId + "' has already used before.", TAG);
     }
@@ -220,9 +922,7 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     "in Screen directly, you will need to have an arrangement beforehand inside a Screen to do that."
   )
   public Component CreateEphemeral(final AndroidViewComponent in, Object componentName) throws Exception {
-    Class<?> mClass = Class.forName(Utils.getClassName(componentName));
-    final Constructor<?> mConstructor = mClass.getConstructor(ComponentContainer.class);
-    return Utils.createInstance(mConstructor, in);
+    return Utils.createInstance(ComponentTypes.resolve(componentName), in);
   }
 
   @SimpleFunction(description = "Generates a random UUID, can be useful to create components with random ID.")
@@ -243,11 +943,37 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     return component;
   }
 
+  @SimpleFunction(description =
+    "Cancels a schema build started with 'SchemaAsync' and removes the components it has created so far. " +
+    "Returns false if the build has already finished or there is no build with the given ID."
+  )
+  public boolean CancelSchemaBuild(String buildId) {
+    final AsyncSchemaBuild mBuild = ASYNC_BUILDS.get(buildId);
+    return mBuild != null && mBuild.cancel();
+  }
+
   @SimpleFunction(description = "Get meta data about the specified component.")
   public YailDictionary GetComponentMeta(Component component) {
     return Metadata.getComponentCommonInfo(component);
   }
 
+  @SimpleFunction(description =
+    "Returns the hit and miss counts of the method lookup cache that is used when setting, getting " +
+    "properties and invoking methods, as a dictionary."
+  )
+  public YailDictionary GetDispatchCacheStats() {
+    return MethodCache.getStats();
+  }
+
+  @SimpleFunction(description =
+    "Returns the statistics recorded while 'StatsMode' is not 'Off' as a dictionary. Each metric contains its " +
+    "count, and timed metrics also contain their total and average time in microseconds and a histogram, where " +
+    "the item N contains the amount of events that took less than 2^(N-1) microseconds."
+  )
+  public YailDictionary GetStats() {
+    return Stats.getStats();
+  }
+
   @SimpleFunction(description = "Get meta data about events for the specified component.")
   public YailDictionary GetEventMeta(Component component) {
     try {
@@ -268,9 +994,23 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     }
   }
 
+  @SimpleFunction(description =
+    "Returns the index of the row (beginning from one) that the given component currently shows in a " +
+    "virtual list. Returns zero (0) if the component is not a part of a virtual list."
+  )
+  public int GetVirtualListRow(Component component) {
+    for (VirtualList mList : VIRTUAL_LISTS.values()) {
+      final int row = mList.getRowOf(component);
+      if (row != -1) {
+        return row + 1;
+      }
+    }
+    return 0;
+  }
+
   @SimpleFunction(description = "Returns the ID of the specified component. If not found, returns an empty string.")
   public String GetId(Component component) {
-    final String componentId = COMPONENT_IDS.get(component);
+    final String componentId = COMPONENTS.getId(component);
     if (componentId != null) {
       return componentId;
     }
@@ -325,7 +1065,7 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
 
   @SimpleFunction(description = "Returns true if the specified component was created by this extension, otherwise false.")
   public boolean IsDynamic(Component component) {
-    return COMPONENTS.containsValue(component);
+    return COMPONENTS.contains(component);
   }
 
   @SimpleFunction(description = "Returns the last used ID to create a component.")
@@ -342,9 +1082,44 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     mTarget.addView(mComponent);
   }
 
+  @SimpleFunction(description =
+    "Loads the classes of the given component types and looks up their constructors and methods in the " +
+    "background, so the first creation of them doesn't need to do it. The 'PrewarmCompleted' event is " +
+    "called when it is done."
+  )
+  public void Prewarm(YailList types) {
+    prewarm(Arrays.asList(types.toArray()));
+  }
+
+  private void prewarm(final List<Object> types) {
+    AsynchUtil.runAsynchronously(new Runnable() {
+      @Override
+      public void run() {
+        final ArrayList<String> mPrepared = new ArrayList<>();
+        final ArrayList<String> mFailed = new ArrayList<>();
+        for (Object type : types) {
+          try {
+            final ComponentType mType = ComponentTypes.resolve(type);
+            MethodCache.prewarm(mType.type);
+            mPrepared.add(mType.simpleName);
+          } catch (Exception e) {
+            Log.w(TAG, "Couldn't prewarm the component type '" + type + "': " + e.getMessage());
+            mFailed.add(String.valueOf(type));
+          } catch (LinkageError e) {
+            // Otherwise it would end the task, and PrewarmCompleted would never be called.
+            Log.w(TAG, "Couldn't prewarm the component type '" + type + "': " + e);
+            mFailed.add(String.valueOf(type));
+          }
+        }
+        PrewarmCompleted(YailList.makeList(mPrepared), YailList.makeList(mFailed));
+      }
+    });
+  }
+
   @SimpleFunction(description =
     "Removes a component from the screen with its ID. The ID will also be de-registered, " +
-    "so its ID can be reused for other components that are going to be created later."
+    "so its ID can be reused for other components that are going to be created later. " +
+    "Dynamic components that have been created inside of it are also removed."
   )
   public void Remove(String id) {
     Component component = COMPONENTS.get(id);
@@ -352,17 +1127,49 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
       return;
     }
     RemoveComponent(component);
-    COMPONENTS.remove(id);
-    COMPONENT_IDS.remove(component);
+  }
+
+  @SimpleFunction(description =
+    "Removes the component with the given ID and all components whose IDs start with it and a dot " +
+    "(like 'card4.title' for 'card4'), in a single operation. Unlike the IDs returned by 'IdsWithPrefix', " +
+    "other IDs that start with the same text, like 'card42', are not removed."
+  )
+  public void RemoveSubtree(String id) {
+    removeAll(COMPONENTS.idsInSubtree(id));
   }
 
   @SimpleFunction(description =
     "Removes a component from the screen. It doesn't need to be created by this extension. " +
     "But if the given component is dynamically created by this extension, this block will also " +
-    "de-register its ID so its ID can be reused for other components that are going to be created later."
+    "de-register its ID so its ID can be reused for other components that are going to be created later. " +
+    "Dynamic components that have been created inside of it are also removed."
   )
   public void RemoveComponent(Component component) {
+    final long mBegin = Stats.begin();
     try {
+      // Also remove the component from component list if
+      // it has created by DynamicComponents.
+      final ComponentRegistry.Entry storedEntry = COMPONENTS.getEntry(component);
+      if (storedEntry != null) {
+        // Dynamic components created inside of this one are removed with it. Their views
+        // are inside of the view of this component, so only this component's view is detached.
+        final List<ComponentRegistry.Entry> subtree = COMPONENTS.subtree(storedEntry);
+        for (ComponentRegistry.Entry entry : subtree) {
+          COMPONENTS.unregister(entry.component);
+          forgetAppliedSchemas(entry.component, entry.getId());
+        }
+        for (ComponentRegistry.Entry entry : subtree) {
+          if (entry != storedEntry) {
+            destroyComponent(entry.component);
+          }
+        }
+        if (subtree.size() == 1 && storedEntry.container instanceof ComponentContainer && isRecyclable(component)) {
+          recycleComponent((AndroidViewComponent) component, storedEntry.container);
+          return;
+        }
+      } else {
+        forgetAppliedSchemas(component, null);
+      }
       Method mMethod = Utils.getMethod(component, "getView");
       if (mMethod != null) {
         final View mComponent = (View) mMethod.invoke(component);
@@ -370,7 +1177,7 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
           final ViewGroup mParent = (ViewGroup) mComponent.getParent();
           if (mParent != null) {
             if (postOnUiThread) {
-              new Handler(Looper.getMainLooper()).post(new Runnable() {
+              uiBatch.post(new Runnable() {
                 @Override
                 public void run() {
                   mParent.removeView(mComponent);
@@ -382,24 +1189,127 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
           }
         }
       }
+      destroyComponent(component);
+    } catch (Exception e) {
+      e.printStackTrace();
+    } finally {
+      Stats.end("remove", mBegin);
+    }
+  }
+
+  /*
+      Forget the schema applied to a removed container, and the node of a
+      removed component in the schemas that it is a part of, so the next
+      'ApplySchema' doesn't compare with nodes that don't exist anymore.
+      Other nodes of those schemas are kept, so they are still compared.
+  */
+  private void forgetAppliedSchemas(Component component, String id) {
+    if (APPLIED_SCHEMAS.isEmpty()) {
+      return;
+    }
+    APPLIED_SCHEMAS.remove(component);
+    if (id != null) {
+      for (LinkedHashMap<String, CompiledSchema.BoundNode> schema : APPLIED_SCHEMAS.values()) {
+        schema.remove(id);
+      }
+    }
+  }
+
+  private void destroyComponent(Component component) {
+    try {
       final String[] closeMethods = new String[] { "onPause", "onDestroy", "onDelete" };
       for (String methodName : closeMethods) {
         final Method invokeMethod = Utils.getMethod(component, methodName);
         if (invokeMethod != null)
           invokeMethod.invoke(component);
       }
-      // Also remove the component from component list if
-      // it has created by DynamicComponents.
-      Object storedComponentId = COMPONENT_IDS.get(component);
-      if (storedComponentId != null) {
-        COMPONENTS.remove(storedComponentId);
-        COMPONENT_IDS.remove(component);
-      }
     } catch (Exception e) {
       e.printStackTrace();
     }
   }
 
+  private boolean isRecyclable(Component component) {
+    return recyclePool.isEnabled()
+      && component instanceof AndroidViewComponent
+      && !ComponentTypes.resolve(component).requiresInitialize;
+  }
+
+  /*
+      Detach the component from the screen, reset its properties and keep
+      it in the pool to be used again by a later creation of the same type.
+  */
+  private void recycleComponent(final AndroidViewComponent component, final AndroidViewComponent container) {
+    final Runnable recycle = new Runnable() {
+      @Override
+      public void run() {
+        final View mComponent = component.getView();
+        if (mComponent != null && mComponent.getParent() != null) {
+          ((ViewGroup) mComponent.getParent()).removeView(mComponent);
+        }
+        if (!ComponentPool.resetToDefaults(component)) {
+          // It wouldn't look like a new component, so don't use it again.
+          destroyComponent(component);
+          return;
+        }
+        final Component evicted = recyclePool.add(component, container);
+        if (evicted != null) {
+          destroyComponent(evicted);
+        }
+      }
+    };
+    if (postOnUiThread) {
+      uiBatch.post(recycle);
+    } else {
+      recycle.run();
+    }
+  }
+
+  @SimpleFunction(description =
+    "Returns the statistics of the recycle pool as a dictionary, with the amount of hits (components that " +
+    "have been reused), misses (components that have been created as there was none in the pool), " +
+    "evictions and the current size of the pool."
+  )
+  public YailDictionary RecyclePoolStats() {
+    return recyclePool.getStats();
+  }
+
+  @SimpleFunction(description = "Destroys all components that are currently kept in the recycle pool.")
+  public void ClearRecyclePool() {
+    for (Component component : recyclePool.clear()) {
+      destroyComponent(component);
+    }
+  }
+
+  @SimpleFunction(description = "Removes the virtual list with the given ID, along with all of its row components.")
+  public void RemoveVirtualList(String id) {
+    final VirtualList mList = VIRTUAL_LISTS.remove(id);
+    if (mList != null) {
+      mList.dispose();
+    }
+  }
+
+  @SimpleFunction(description =
+    "Removes the components with the given IDs in a single operation. IDs that don't exist are ignored."
+  )
+  public void RemoveMany(YailList ids) {
+    final ArrayList<String> mIds = new ArrayList<>();
+    for (Object id : ids.toArray()) {
+      mIds.add(String.valueOf(id));
+    }
+    removeAll(mIds);
+  }
+
+  private void removeAll(Iterable<String> ids) {
+    uiBatch.begin();
+    try {
+      for (String id : ids) {
+        Remove(id);
+      }
+    } finally {
+      uiBatch.end();
+    }
+  }
+
   @SimpleFunction(description =
     "Sets the order of the specified component according to its parent view. " +
     "Indexes begins at one, and setting to zero (0) will move the component to the end."
@@ -411,12 +1321,26 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     mParent.addView(mComponent, Math.min(index - 1, mParent.getChildCount()));
   }
 
+  @SimpleFunction(description =
+    "Replaces the rows of a virtual list. Each row is a list of template parameters, or a single value " +
+    "if the template has only one parameter."
+  )
+  public void SetVirtualListRows(String id, YailList rows) {
+    final VirtualList mList = VIRTUAL_LISTS.get(id);
+    if (mList == null) {
+      throw new YailRuntimeError("There is no virtual list with the ID '" + id + "'.", TAG);
+    }
+    mList.setRows(rows);
+  }
+
   @SimpleFunction(description =
     "Set a property of the specified component by its name, including properties " +
     "those only available from the Designer."
   )
   public void SetProperty(Component component, String name, Object value) {
-    Utils.callMethod(component, name, new Object[] { value });
+    if (!queueUpdate(component, name, value)) {
+      Utils.callMethod(component, name, new Object[] { value });
+    }
   }
 
   @SimpleFunction(description =
@@ -425,7 +1349,36 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
   )
   public void SetProperties(Component component, YailDictionary properties) throws Exception {
     for (Map.Entry<Object, Object> pair : properties.entrySet()) {
-      Utils.callMethod(component, (String)pair.getKey(), new Object[] { pair.getValue() });
+      if (!queueUpdate(component, (String)pair.getKey(), pair.getValue())) {
+        Utils.callMethod(component, (String)pair.getKey(), new Object[] { pair.getValue() });
+      }
+    }
+  }
+
+  @SimpleFunction(description =
+    "Set multiple properties of multiple components using a dictionary in a single operation. " +
+    "The list can contain both components and IDs of components created with this extension. " +
+    "Like 'SetProperties', the properties are queued if an update transaction is open."
+  )
+  public void SetPropertiesMany(YailList components, YailDictionary properties) {
+    final String[] mNames = new String[properties.size()];
+    final Object[] mValues = new Object[properties.size()];
+    int i = 0;
+    for (Map.Entry<Object, Object> pair : properties.entrySet()) {
+      mNames[i] = (String) pair.getKey();
+      mValues[i] = pair.getValue();
+      i++;
+    }
+    for (Object item : components.toArray()) {
+      final Component mComponent = item instanceof Component ? (Component) item : COMPONENTS.get(String.valueOf(item));
+      if (mComponent == null) {
+        continue;
+      }
+      for (int k = 0; k < mNames.length; k++) {
+        if (!queueUpdate(mComponent, mNames[k], mValues[k])) {
+          Utils.callMethod(mComponent, mNames[k], new Object[] { mValues[k] });
+        }
+      }
     }
   }
 
@@ -435,67 +1388,132 @@ public class DynamicComponents extends AndroidNonvisibleComponent {
     "the documentation for more information about using and creating templates."
   )
   public void Schema(AndroidViewComponent in, final String template, final YailList parameters) throws Exception {
-    JSONObject mScheme = new JSONObject(template);
+    createFromSchema(in, compile(template), parameters);
+  }
 
-    if (!mScheme.optString("metadata-version", "").equals("1")) {
-      throw new YailRuntimeError("Metadata version ('metadata-version' key in JSON) must equal to 1.", TAG);
+  @SimpleFunction(description =
+    "Create components in bulk with a JSON template (or a compiled schema) without blocking the screen. " +
+    "Components are created in small chunks that fit in the 'AsyncFrameBudget', and the 'SchemaProgress' event " +
+    "is called after each chunk. The 'SchemaCreated' event is called when all components have been created. " +
+    "Returns an ID that can be used with the 'CancelSchemaBuild' block."
+  )
+  public String SchemaAsync(AndroidViewComponent in, Object schema, YailList parameters) throws Exception {
+    final CompiledSchema mSchema = schema instanceof CompiledSchema
+      ? (CompiledSchema) schema
+      : compile(String.valueOf(schema));
+    final CompiledSchema.BoundNode[] mNodes = mSchema.bind(parameters.toArray());
+    // Errors can't be reported to the caller once the build has started, so check everything that can be checked now.
+    for (CompiledSchema.BoundNode node : mNodes) {
+      if (COMPONENTS.contains(node.id)) {
+        throw new YailRuntimeError("All component IDs must be unique, the component ID '" + node.id + "' has already used before.", TAG);
+      }
+      ComponentTypes.resolve(node.type);
     }
+    String mBuildId;
+    do {
+      mBuildId = UUID.randomUUID().toString();
+    } while (ASYNC_BUILDS.containsKey(mBuildId));
+    final AsyncSchemaBuild mBuild = new AsyncSchemaBuild(
+      mBuildId, mSchema.name, parameters, in, mNodes, asyncFrameBudget, uiBatch.getHandler(), asyncBuildHost
+    );
+    ASYNC_BUILDS.put(mBuildId, mBuild);
+    mBuild.start();
+    return mBuildId;
+  }
 
-    if (Utils.isNotEmptyOrNull(template) && mScheme.has("components")) {
-      JSONArray mKeys = (mScheme.has("keys") ? mScheme.getJSONArray("keys") : new JSONArray());
-      if (mKeys.length() != (parameters.length() - 1)) {
-        throw new YailRuntimeError(
-          "Given list of template parameters must contain same amount of items that defined in the schema. " +
-          "The template expects: " + mKeys.length() + ", but given parameters are: " + (parameters.length() - 1), TAG
-        );
-      }
-      LinkedList<String[]> formatMapping = new LinkedList<String[]>();
-      for (int i = 0; i < mKeys.length(); i++) {
-        formatMapping.addLast(new String[] { mKeys.getString(i), parameters.getString(i) });
-      }
-      LinkedList<JSONObject> componentsList = Utils.componentTreeToList(mScheme.getJSONArray("components"), formatMapping);
+  private void createFromSchema(AndroidViewComponent in, CompiledSchema schema, YailList parameters) throws Exception {
+    final CompiledSchema.BoundNode[] children = schema.bind(parameters.toArray());
+    uiBatch.begin();
+    beginBulk();
+    try {
+      createFromBoundNodes(in, children);
+    } finally {
+      endBulk();
+      uiBatch.end();
+    }
 
-      for (final JSONObject child : componentsList) {
-        final String mId = child.getString("id");
-        AndroidViewComponent mRoot = (!child.has("parent") ? in : (AndroidViewComponent) COMPONENTS.get(child.getString("parent")));
-        final String mType = child.getString("type");
+    SchemaCreated(schema.name, parameters);
+  }
 
-        ComponentListener listener = new ComponentListener() {
-          @Override
-          public void onCreation(Component component, String id) {
-            try {
-              if (Objects.equals(id, mId)) {
-                JSONObject mProperties = child.getJSONObject("properties");
-                JSONArray keys = mProperties.names();
-                if (keys != null) {
-                  for (int k = 0; k < keys.length(); k++) {
-                    Utils.callMethod(
-                      COMPONENTS.get(mId),
-                      keys.getString(k),
-                      new Object[] { mProperties.get(keys.getString(k)) }
-                    );
-                  }
-                }
-                componentListeners.remove(this);
-              }
-            } catch (JSONException e) {
-              e.printStackTrace();
-            }
+  private void createFromBoundNodes(AndroidViewComponent in, CompiledSchema.BoundNode[] children) {
+    // In "UI" mode, this only measures posting the creations, the creations themselves are counted on their own.
+    final long mBegin = Stats.begin();
+    for (CompiledSchema.BoundNode child : children) {
+      // The properties are carried by the creation itself, so nothing is left behind if it never runs.
+      create(in, child.parentId, child.type, child.id, child.properties);
+    }
+    Stats.end("schema.instantiate", mBegin);
+  }
+
+  @SimpleFunction(description =
+    "Create components in bulk with a JSON template that is read from an asset or a file path. Unlike the " +
+    "'Schema' block, the template is read piece by piece and each component is created as soon as it has been " +
+    "read, so large templates don't need to be loaded into memory at once. The components are always created " +
+    "right away like 'CreateSync', regardless of the 'Thread' property. The 'metadata-version' and 'keys' " +
+    "of the template must come before its 'components'."
+  )
+  public void SchemaFromFile(final AndroidViewComponent in, String path, final YailList parameters) throws Exception {
+    final InputStream mStream = MediaUtil.openMedia(form, path);
+    final Reader mReader = new BufferedReader(new InputStreamReader(mStream, "UTF-8"));
+    final String mName;
+    // Blocks are run on the UI thread already. Posting the creations would keep all of them
+    // in memory until the whole file has been read, so they are created while it is read.
+    final BuiltComponents mOuter = builtComponents;
+    builtComponents = batchBuiltEvents ? new BuiltComponents() : null;
+    try {
+      mName = SchemaStreamReader.read(mReader, parameters.toArray(), new SchemaStreamReader.Listener() {
+        @Override
+        public void onComponent(String parentId, String id, String type, Map<String, Object> properties) {
+          if (COMPONENTS.contains(id)) {
+            throw new YailRuntimeError("All component IDs must be unique, the component ID '" + id + "' has already used before.", TAG);
           }
-        };
-        componentListeners.add(listener);
-        Create(mRoot, mType, mId);
-      }
+          lastUsedId = id;
+          createInstance(
+            parentId == null ? in : (AndroidViewComponent) COMPONENTS.get(parentId),
+            ComponentTypes.resolve(type),
+            id,
+            properties
+          );
+        }
 
-      SchemaCreated(mScheme.optString("name", ""), parameters);
-    } else {
-      throw new YailRuntimeError("The template is empty, or is does not have any components.", TAG);
+        @Override
+        public void onProperties(String id, Map<String, Object> properties) {
+          // Properties after the "components" of a component, which has been created already.
+          final Component mComponent = COMPONENTS.get(id);
+          if (mComponent != null) {
+            applyProperties(mComponent, properties);
+          }
+        }
+      });
+    } finally {
+      final BuiltComponents mBuilt = builtComponents;
+      builtComponents = mOuter;
+      reportBuilt(mBuilt);
+      mReader.close();
     }
+    SchemaCreated(mName, parameters);
   }
 
   @SimpleFunction(description = "Returns all IDs of components created with this extension as a list.")
   public YailList UsedIDs() {
-    return YailList.makeList(COMPONENTS.keySet());
+    return YailList.makeList(COMPONENTS.ids());
+  }
+
+  @SimpleFunction(description =
+    "Returns the ID of the given component and the IDs of all dynamic components that have been " +
+    "created inside of it (and inside of them) as a list. Returns an empty list if the ID doesn't exist."
+  )
+  public YailList UsedIDsOf(String id) {
+    final ArrayList<String> mIds = new ArrayList<>();
+    final ComponentRegistry.Entry mEntry = COMPONENTS.getEntry(id);
+    if (mEntry != null) {
+      for (ComponentRegistry.Entry entry : COMPONENTS.subtree(mEntry)) {
+        mIds.add(entry.getId());
+      }
+      // Parents before their children.
+      Collections.reverse(mIds);
+    }
+    return YailList.makeList(mIds);
   }
 
   @SimpleProperty(description = "Returns the version of this extension.")
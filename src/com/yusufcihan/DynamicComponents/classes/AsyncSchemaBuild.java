@@ -0,0 +1,149 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.ArrayList;
+
+import com.google.appinventor.components.runtime.AndroidViewComponent;
+import com.google.appinventor.components.runtime.util.YailList;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+/*
+    Creates the components of a bound schema on the main thread in
+    chunks. Each chunk creates components until its time budget is
+    used, then posts the next chunk, so the main thread can draw frames
+    and handle input between the chunks.
+
+    A build can be cancelled at any time; the components that have been
+    created by it are removed in reverse order, so children are always
+    removed before their parents.
+*/
+public class AsyncSchemaBuild implements Runnable {
+  private static final String TAG = Utils.TAG;
+
+  /*
+      Creates and removes the components of the build, and is notified
+      about its progress. All calls are made on the main thread.
+  */
+  public interface Host {
+    void createComponent(AndroidViewComponent in, CompiledSchema.BoundNode node);
+
+    void removeComponent(String id);
+
+    void onProgress(AsyncSchemaBuild build, int created, int total);
+
+    void onFinished(AsyncSchemaBuild build);
+
+    void onCancelled(AsyncSchemaBuild build, int created);
+  }
+
+  private final String id;
+  private final String name;
+  private final YailList parameters;
+  private final AndroidViewComponent container;
+  private final CompiledSchema.BoundNode[] nodes;
+  private final long budget;
+  private final Handler handler;
+  private final Host host;
+
+  // IDs of the created components, in creation order.
+  private final ArrayList<String> created = new ArrayList<String>();
+  private boolean done = false;
+
+  public AsyncSchemaBuild(String id, String name, YailList parameters, AndroidViewComponent container,
+                          CompiledSchema.BoundNode[] nodes, long budget, Handler handler, Host host) {
+    this.id = id;
+    this.name = name;
+    this.parameters = parameters;
+    this.container = container;
+    this.nodes = nodes;
+    // At least one component is created in each chunk, even with no budget.
+    this.budget = Math.max(0, budget);
+    this.handler = handler;
+    this.host = host;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public YailList getParameters() {
+    return parameters;
+  }
+
+  public boolean isDone() {
+    return done;
+  }
+
+  public void start() {
+    handler.post(this);
+  }
+
+  @Override
+  public void run() {
+    if (done) {
+      return;
+    }
+    final long deadline = SystemClock.uptimeMillis() + budget;
+    try {
+      while (created.size() < nodes.length) {
+        final CompiledSchema.BoundNode node = nodes[created.size()];
+        host.createComponent(container, node);
+        if (done) {
+          // Cancelled while the component was being created, so cancel() didn't know about it.
+          host.removeComponent(node.id);
+          return;
+        }
+        created.add(node.id);
+        if (SystemClock.uptimeMillis() >= deadline) {
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      // Nothing can catch it on the main thread, so undo the build instead of crashing.
+      Log.e(TAG, "Couldn't create the components of the schema '" + name + "': " + e.getMessage());
+      cancel();
+      return;
+    }
+    host.onProgress(this, created.size(), nodes.length);
+    if (created.size() < nodes.length) {
+      handler.post(this);
+    } else {
+      done = true;
+      host.onFinished(this);
+    }
+  }
+
+  /*
+      Stop the build and remove the components it has created so far.
+      Returns false if the build has already finished or been cancelled.
+  */
+  public boolean cancel() {
+    if (done) {
+      return false;
+    }
+    done = true;
+    handler.removeCallbacks(this);
+    final int count = created.size();
+    for (int i = count - 1; i >= 0; i--) {
+      host.removeComponent(created.get(i));
+    }
+    created.clear();
+    host.onCancelled(this, count);
+    return true;
+  }
+
+  /*
+      Stop the build without removing its components or notifying the
+      host, for when the screen that it is building on has been closed.
+  */
+  public void stop() {
+    done = true;
+    handler.removeCallbacks(this);
+  }
+}
@@ -0,0 +1,351 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+
+/*
+    Reads and writes compiled schemas in the binary schema format, which
+    is also written by TemplateCreator. The template is already flattened
+    and its parameters are already located, so loading it only needs to
+    create the objects.
+
+    All integers are unsigned LEB128 varints, unless noted otherwise.
+
+    file:     "DCSB" magic, version (1), string table, name (string),
+              key count, keys (strings), node count, nodes
+    strings:  count, then each as byte length and UTF-8 bytes. Strings
+              are referenced with their index in the table.
+    node:     parent index + 1 (0 for components in the container),
+              id (text), type (text), property count, then each
+              property as a key (text) and a value
+    text:     original text (string), slot count, then if there are
+              slots: slot count + 1 literals (strings) and slot count
+              parameter indexes. A literal comes before each slot.
+    value:    tag byte, then
+              0 null, 1 false, 2 true,
+              3 int (zigzag varint), 4 long (zigzag varint),
+              5 double (8 bytes, big endian), 6 text,
+              7 list or object as JSON (string)
+*/
+public final class BinarySchema {
+  private static final String TAG = Utils.TAG;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final byte[] MAGIC = { 'D', 'C', 'S', 'B' };
+  static final int VERSION = 1;
+
+  static final int TAG_NULL = 0;
+  static final int TAG_FALSE = 1;
+  static final int TAG_TRUE = 2;
+  static final int TAG_INT = 3;
+  static final int TAG_LONG = 4;
+  static final int TAG_DOUBLE = 5;
+  static final int TAG_TEXT = 6;
+  static final int TAG_JSON = 7;
+
+  private final ByteBuffer data;
+  private String[] strings;
+  private int keyCount;
+
+  private BinarySchema(ByteBuffer data) {
+    this.data = data;
+  }
+
+  /*
+      Read a binary schema from a stream. The stream is read until its
+      end, but it is not closed.
+  */
+  public static CompiledSchema read(InputStream stream) throws IOException {
+    final ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(stream.available(), 4096));
+    final byte[] chunk = new byte[8192];
+    int count;
+    while ((count = stream.read(chunk)) != -1) {
+      buffer.write(chunk, 0, count);
+    }
+    return read(buffer.toByteArray());
+  }
+
+  public static CompiledSchema read(byte[] data) {
+    return read(ByteBuffer.wrap(data));
+  }
+
+  /*
+      Read a binary schema from a buffer, which can also be a memory
+      mapped file. Strings are copied out of it, so the buffer doesn't
+      need to be kept after reading.
+  */
+  public static CompiledSchema read(ByteBuffer data) {
+    final long begin = Stats.begin();
+    try {
+      final CompiledSchema schema = new BinarySchema(data.duplicate()).readSchema();
+      Stats.end("schema.load", begin);
+      return schema;
+    } catch (YailRuntimeError e) {
+      throw e;
+    } catch (RuntimeException e) {
+      // Index and array errors from a truncated or corrupted file.
+      throw invalid(e.toString());
+    }
+  }
+
+  private static YailRuntimeError invalid(String reason) {
+    return new YailRuntimeError("The binary schema is invalid: " + reason, TAG);
+  }
+
+  private CompiledSchema readSchema() {
+    for (byte b : MAGIC) {
+      if (!data.hasRemaining() || data.get() != b) {
+        throw invalid("it doesn't start with the binary schema header.");
+      }
+    }
+    final int version = readCount();
+    if (version != VERSION) {
+      throw invalid("version " + version + " is not supported, only version " + VERSION + " can be read.");
+    }
+    strings = new String[readCount()];
+    byte[] scratch = new byte[64];
+    for (int i = 0; i < strings.length; i++) {
+      final int length = readCount();
+      if (data.hasArray()) {
+        strings[i] = new String(data.array(), data.arrayOffset() + data.position(), length, UTF_8);
+        data.position(data.position() + length);
+      } else {
+        if (scratch.length < length) {
+          scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        data.get(scratch, 0, length);
+        strings[i] = new String(scratch, 0, length, UTF_8);
+      }
+    }
+    final String name = readString();
+    keyCount = readCount();
+    final String[] keys = new String[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = readString();
+    }
+    // Like CompiledSchema.compile(), an empty "components" list is allowed.
+    final CompiledSchema.Node[] nodes = new CompiledSchema.Node[readCount()];
+    for (int i = 0; i < nodes.length; i++) {
+      final int parent = readCount() - 1;
+      if (parent >= i) {
+        throw invalid("the parent of a component must come before it.");
+      }
+      final TemplateString id = readText();
+      final TemplateString type = readText();
+      final int propertyCount = readCount();
+      final TemplateString[] propertyKeys = new TemplateString[propertyCount];
+      final Object[] propertyValues = new Object[propertyCount];
+      for (int k = 0; k < propertyCount; k++) {
+        propertyKeys[k] = readText();
+        propertyValues[k] = readValue();
+      }
+      nodes[i] = new CompiledSchema.Node(parent, id, type, propertyKeys, propertyValues);
+    }
+    return new CompiledSchema(name, keys, nodes);
+  }
+
+  private TemplateString readText() {
+    final String text = readString();
+    final int slotCount = readCount();
+    if (slotCount == 0) {
+      return TemplateString.of(text, null, null);
+    }
+    final String[] literals = new String[slotCount + 1];
+    for (int i = 0; i < literals.length; i++) {
+      literals[i] = readString();
+    }
+    final int[] slots = new int[slotCount];
+    for (int i = 0; i < slotCount; i++) {
+      slots[i] = readCount();
+      if (slots[i] >= keyCount) {
+        throw invalid("'" + text + "' refers to a parameter that doesn't exist.");
+      }
+    }
+    return TemplateString.of(text, literals, slots);
+  }
+
+  private Object readValue() {
+    final int tag = data.get();
+    switch (tag) {
+      case TAG_NULL:
+        return JSONObject.NULL;
+      case TAG_FALSE:
+        return false;
+      case TAG_TRUE:
+        return true;
+      case TAG_INT:
+        return (int) decodeZigZag(readVarint());
+      case TAG_LONG:
+        return decodeZigZag(readVarint());
+      case TAG_DOUBLE:
+        return data.getDouble();
+      case TAG_TEXT:
+        return readText();
+      case TAG_JSON:
+        final String json = readString();
+        try {
+          return json.startsWith("[") ? new JSONArray(json) : new JSONObject(json);
+        } catch (JSONException e) {
+          throw invalid(e.getMessage());
+        }
+      default:
+        throw invalid("unknown value type " + tag + ".");
+    }
+  }
+
+  private String readString() {
+    final int index = readCount();
+    if (index >= strings.length) {
+      throw invalid("string " + index + " is not in the string table.");
+    }
+    return strings[index];
+  }
+
+  private int readCount() {
+    final long value = readVarint();
+    if (value > Integer.MAX_VALUE) {
+      throw invalid("a count is too large.");
+    }
+    return (int) value;
+  }
+
+  private long readVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = data.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw invalid("a number is too long.");
+  }
+
+  private static long decodeZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /*
+      Write a compiled schema in the binary schema format.
+  */
+  public static byte[] write(CompiledSchema schema) {
+    final HashMap<String, Integer> stringIndexes = new HashMap<String, Integer>();
+    final ByteArrayOutputStream strings = new ByteArrayOutputStream();
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    writeVarint(body, writeString(strings, stringIndexes, schema.name));
+    final String[] keys = schema.getKeys();
+    writeVarint(body, keys.length);
+    for (String key : keys) {
+      writeVarint(body, writeString(strings, stringIndexes, key));
+    }
+    final CompiledSchema.Node[] nodes = schema.getNodes();
+    writeVarint(body, nodes.length);
+    for (CompiledSchema.Node node : nodes) {
+      writeVarint(body, node.parent + 1);
+      writeText(body, strings, stringIndexes, node.id);
+      writeText(body, strings, stringIndexes, node.type);
+      writeVarint(body, node.propertyKeys.length);
+      for (int k = 0; k < node.propertyKeys.length; k++) {
+        writeText(body, strings, stringIndexes, node.propertyKeys[k]);
+        writeValue(body, strings, stringIndexes, node.propertyValues[k]);
+      }
+    }
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(MAGIC.length + strings.size() + body.size() + 16);
+    out.write(MAGIC, 0, MAGIC.length);
+    writeVarint(out, VERSION);
+    writeVarint(out, stringIndexes.size());
+    final byte[] stringBytes = strings.toByteArray();
+    out.write(stringBytes, 0, stringBytes.length);
+    final byte[] bodyBytes = body.toByteArray();
+    out.write(bodyBytes, 0, bodyBytes.length);
+    return out.toByteArray();
+  }
+
+  /*
+      Add a string to the string table if it isn't there yet and
+      return its index.
+  */
+  private static int writeString(ByteArrayOutputStream strings, Map<String, Integer> stringIndexes, String text) {
+    Integer index = stringIndexes.get(text);
+    if (index == null) {
+      index = stringIndexes.size();
+      stringIndexes.put(text, index);
+      final byte[] bytes = text.getBytes(UTF_8);
+      writeVarint(strings, bytes.length);
+      strings.write(bytes, 0, bytes.length);
+    }
+    return index;
+  }
+
+  private static void writeText(ByteArrayOutputStream out, ByteArrayOutputStream strings,
+                                Map<String, Integer> stringIndexes, TemplateString text) {
+    writeVarint(out, writeString(strings, stringIndexes, text.getText()));
+    final int[] slots = text.getSlots();
+    if (slots == null) {
+      writeVarint(out, 0);
+      return;
+    }
+    writeVarint(out, slots.length);
+    for (String literal : text.getLiterals()) {
+      writeVarint(out, writeString(strings, stringIndexes, literal));
+    }
+    for (int slot : slots) {
+      writeVarint(out, slot);
+    }
+  }
+
+  private static void writeValue(ByteArrayOutputStream out, ByteArrayOutputStream strings,
+                                 Map<String, Integer> stringIndexes, Object value) {
+    if (value == null || value == JSONObject.NULL) {
+      out.write(TAG_NULL);
+    } else if (value instanceof Boolean) {
+      out.write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+    } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+      out.write(TAG_INT);
+      writeVarint(out, encodeZigZag(((Number) value).longValue()));
+    } else if (value instanceof Long) {
+      out.write(TAG_LONG);
+      writeVarint(out, encodeZigZag((Long) value));
+    } else if (value instanceof Number) {
+      out.write(TAG_DOUBLE);
+      final long bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        out.write((int) (bits >>> shift) & 0xFF);
+      }
+    } else if (value instanceof TemplateString) {
+      out.write(TAG_TEXT);
+      writeText(out, strings, stringIndexes, (TemplateString) value);
+    } else if (value instanceof JSONArray || value instanceof JSONObject) {
+      out.write(TAG_JSON);
+      writeVarint(out, writeString(strings, stringIndexes, value.toString()));
+    } else {
+      out.write(TAG_TEXT);
+      writeText(out, strings, stringIndexes, TemplateString.of(String.valueOf(value), null, null));
+    }
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long encodeZigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+}
@@ -0,0 +1,228 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+
+/*
+    A schema that has been parsed, validated and flattened once, so it
+    can be used many times with different parameters. Instances are
+    immutable, binding parameters creates new objects.
+*/
+public final class CompiledSchema {
+  private static final String TAG = Utils.TAG;
+
+  public final String name;
+  private final String[] keys;
+  private final Node[] nodes;
+
+  /*
+      A flattened component of the schema. Parents always come before
+      their children, "parent" is the index of the parent node or -1
+      if the component will be created in the given container.
+  */
+  static final class Node {
+    final int parent;
+    final TemplateString id;
+    final TemplateString type;
+    final TemplateString[] propertyKeys;
+    // Either a TemplateString (for text values) or the JSON value itself.
+    final Object[] propertyValues;
+
+    Node(int parent, TemplateString id, TemplateString type, TemplateString[] propertyKeys, Object[] propertyValues) {
+      this.parent = parent;
+      this.id = id;
+      this.type = type;
+      this.propertyKeys = propertyKeys;
+      this.propertyValues = propertyValues;
+    }
+  }
+
+  /*
+      A component of the schema with parameters applied.
+  */
+  public static final class BoundNode {
+    public final String id;
+    public final String type;
+    // ID of the parent component, or null if it will be created in the given container.
+    public final String parentId;
+    public final LinkedHashMap<String, Object> properties;
+
+    BoundNode(String id, String type, String parentId, LinkedHashMap<String, Object> properties) {
+      this.id = id;
+      this.type = type;
+      this.parentId = parentId;
+      this.properties = properties;
+    }
+  }
+
+  CompiledSchema(String name, String[] keys, Node[] nodes) {
+    this.name = name;
+    this.keys = keys;
+    this.nodes = nodes;
+  }
+
+  /*
+      Parse and validate a JSON template, flatten its component tree
+      and locate the template parameters in it.
+  */
+  public static CompiledSchema compile(String template) throws JSONException {
+    long begin = Stats.begin();
+    JSONObject mScheme = new JSONObject(template);
+    Stats.end("schema.parse", begin);
+
+    if (!mScheme.optString("metadata-version", "").equals("1")) {
+      throw new YailRuntimeError("Metadata version ('metadata-version' key in JSON) must equal to 1.", TAG);
+    }
+
+    if (!Utils.isNotEmptyOrNull(template) || !mScheme.has("components")) {
+      throw new YailRuntimeError("The template is empty, or is does not have any components.", TAG);
+    }
+
+    JSONArray mKeys = (mScheme.has("keys") ? mScheme.getJSONArray("keys") : new JSONArray());
+    String[] keys = new String[mKeys.length()];
+    HashMap<String, Integer> keyIndexes = new HashMap<String, Integer>();
+    for (int i = 0; i < mKeys.length(); i++) {
+      keys[i] = mKeys.getString(i);
+      if (!keyIndexes.containsKey(keys[i])) {
+        keyIndexes.put(keys[i], i);
+      }
+    }
+
+    begin = Stats.begin();
+    ArrayList<Node> nodes = new ArrayList<Node>();
+    try {
+      JSONArray mComponents = mScheme.getJSONArray("components");
+      for (int i = 0; i < mComponents.length(); i++) {
+        flatten(-1, mComponents.getJSONObject(i), keyIndexes, nodes);
+      }
+    } catch (YailRuntimeError e) {
+      throw e;
+    } catch (Exception e) {
+      e.printStackTrace();
+      String errorMessage = e.getMessage() == null ? e.toString() : e.getMessage();
+      throw new YailRuntimeError("Couldn't gather components from schema, reason: " + errorMessage, TAG);
+    }
+    Stats.end("schema.flatten", begin);
+    return new CompiledSchema(mScheme.optString("name", ""), keys, nodes.toArray(new Node[nodes.size()]));
+  }
+
+  private static void flatten(
+    int parent, JSONObject componentData, HashMap<String, Integer> keyIndexes, ArrayList<Node> nodes
+  ) throws JSONException {
+    if (!componentData.has("id") || !componentData.has("type")) {
+      throw new YailRuntimeError("All components in the schema at least must have an 'id' and 'type'.", TAG);
+    }
+    TemplateString[] propertyKeys = new TemplateString[0];
+    Object[] propertyValues = new Object[0];
+    if (componentData.has("properties")) {
+      final JSONObject propertyObject = componentData.getJSONObject("properties");
+      propertyKeys = new TemplateString[propertyObject.length()];
+      propertyValues = new Object[propertyObject.length()];
+      final Iterator<?> propertyObjectKeys = propertyObject.keys();
+      for (int i = 0; propertyObjectKeys.hasNext(); i++) {
+        String key = (String) propertyObjectKeys.next();
+        Object value = propertyObject.get(key);
+        propertyKeys[i] = TemplateString.compile(key, keyIndexes);
+        propertyValues[i] = value instanceof String ? TemplateString.compile((String) value, keyIndexes) : value;
+      }
+    }
+    final int index = nodes.size();
+    nodes.add(new Node(
+      parent,
+      TemplateString.compile(componentData.getString("id"), keyIndexes),
+      TemplateString.compile(componentData.getString("type"), keyIndexes),
+      propertyKeys, propertyValues
+    ));
+    if (componentData.has("components")) {
+      final JSONArray childComponents = componentData.getJSONArray("components");
+      for (int i = 0; i < childComponents.length(); i++) {
+        flatten(index, childComponents.getJSONObject(i), keyIndexes, nodes);
+      }
+    }
+  }
+
+  String[] getKeys() {
+    return keys;
+  }
+
+  Node[] getNodes() {
+    return nodes;
+  }
+
+  public int getParameterCount() {
+    return keys.length;
+  }
+
+  public int getComponentCount() {
+    return nodes.length;
+  }
+
+  /*
+      Index of the parent of the component at the given index in
+      creation order, or -1 if it is created in the given container.
+  */
+  public int getParentIndex(int index) {
+    return nodes[index].parent;
+  }
+
+  /*
+      ID of the component at the given index as it is written in the
+      template, without applying any parameters.
+  */
+  public String getTemplateId(int index) {
+    return nodes[index].id.getText();
+  }
+
+  /*
+      Type of the component at the given index. Fails if the type
+      depends on a template parameter.
+  */
+  public String getFixedType(int index) {
+    if (nodes[index].type.hasParameters()) {
+      throw new YailRuntimeError("The type of '" + getTemplateId(index) + "' can't depend on a template parameter.", TAG);
+    }
+    return nodes[index].type.getText();
+  }
+
+  /*
+      Apply the parameter values to the schema, in the same order of
+      the "keys" of the template. Returns the components in creation order.
+  */
+  public BoundNode[] bind(Object[] values) {
+    if (values.length != keys.length) {
+      throw new YailRuntimeError(
+        "Given list of template parameters must contain same amount of items that defined in the schema. " +
+        "The template expects: " + keys.length + ", but given parameters are: " + values.length, TAG
+      );
+    }
+    final long begin = Stats.begin();
+    final BoundNode[] bound = new BoundNode[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      final Node node = nodes[i];
+      final LinkedHashMap<String, Object> properties = new LinkedHashMap<String, Object>();
+      for (int k = 0; k < node.propertyKeys.length; k++) {
+        final Object value = node.propertyValues[k];
+        properties.put(
+          node.propertyKeys[k].format(values),
+          value instanceof TemplateString ? ((TemplateString) value).bind(values) : value
+        );
+      }
+      bound[i] = new BoundNode(
+        node.id.format(values),
+        node.type.format(values),
+        node.parent == -1 ? null : bound[node.parent].id,
+        properties
+      );
+    }
+    Stats.end("schema.bind", begin);
+    return bound;
+  }
+}
@@ -0,0 +1,221 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.appinventor.components.annotations.DesignerProperty;
+import com.google.appinventor.components.common.PropertyTypeConstants;
+import com.google.appinventor.components.runtime.AndroidViewComponent;
+import com.google.appinventor.components.runtime.Component;
+import com.google.appinventor.components.runtime.util.YailDictionary;
+
+import android.util.Log;
+
+/*
+    Keeps removed components per type, so they can be used again instead
+    of creating new ones. Pooled components are detached from the screen
+    and reset to their designer defaults before they are stored.
+
+    A pooled component is only given back for the same container it has
+    been created in, since components keep a reference to their container.
+*/
+public class ComponentPool {
+  private static final String TAG = Utils.TAG;
+
+  private static final class Entry {
+    final AndroidViewComponent component;
+    final AndroidViewComponent container;
+
+    Entry(AndroidViewComponent component, AndroidViewComponent container) {
+      this.component = component;
+      this.container = container;
+    }
+  }
+
+  private static final class DesignerDefault {
+    final ResolvedMethod setter;
+    // The default value as written in the annotation, or the parsed value of colors.
+    final Object value;
+
+    DesignerDefault(ResolvedMethod setter, Object value) {
+      this.setter = setter;
+      this.value = value;
+    }
+  }
+
+  // Designer properties and their default values for each component class
+  private static final ConcurrentHashMap<Class<?>, DesignerDefault[]> DEFAULTS =
+    new ConcurrentHashMap<Class<?>, DesignerDefault[]>();
+
+  private final HashMap<Class<?>, ArrayDeque<Entry>> pool = new HashMap<Class<?>, ArrayDeque<Entry>>();
+  // Maximum amount of pooled components for each type, zero disables the pool.
+  private int capacity = 0;
+  private long hits = 0;
+  private long misses = 0;
+  private long evictions = 0;
+
+  public synchronized int getCapacity() {
+    return capacity;
+  }
+
+  /*
+      Change the maximum amount of pooled components for each type.
+      Returns the components that no longer fit in the pool.
+  */
+  public synchronized List<Component> setCapacity(int capacity) {
+    this.capacity = Math.max(0, capacity);
+    final ArrayList<Component> evicted = new ArrayList<Component>();
+    for (ArrayDeque<Entry> entries : pool.values()) {
+      while (entries.size() > this.capacity) {
+        evicted.add(entries.pollFirst().component);
+        evictions++;
+      }
+    }
+    return evicted;
+  }
+
+  public synchronized boolean isEnabled() {
+    return capacity > 0;
+  }
+
+  /*
+      Take a pooled component of the given type that has been created in
+      the given container. Returns null if there isn't any.
+  */
+  public synchronized AndroidViewComponent take(Class<?> type, AndroidViewComponent container) {
+    if (capacity == 0) {
+      return null;
+    }
+    final ArrayDeque<Entry> entries = pool.get(type);
+    if (entries != null) {
+      // Most recently pooled components are at the end.
+      final Iterator<Entry> iterator = entries.descendingIterator();
+      while (iterator.hasNext()) {
+        final Entry entry = iterator.next();
+        if (entry.container == container) {
+          iterator.remove();
+          hits++;
+          return entry.component;
+        }
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  /*
+      Store a detached component in the pool. If the pool of its type is
+      full, the oldest component is evicted and returned, so the caller
+      can destroy it. Returns null otherwise.
+  */
+  public synchronized AndroidViewComponent add(AndroidViewComponent component, AndroidViewComponent container) {
+    ArrayDeque<Entry> entries = pool.get(component.getClass());
+    if (entries == null) {
+      entries = new ArrayDeque<Entry>();
+      pool.put(component.getClass(), entries);
+    }
+    AndroidViewComponent evicted = null;
+    if (entries.size() >= capacity) {
+      evicted = entries.pollFirst().component;
+      evictions++;
+    }
+    entries.addLast(new Entry(component, container));
+    return evicted;
+  }
+
+  /*
+      Remove all components from the pool and return them.
+  */
+  public synchronized List<Component> clear() {
+    final ArrayList<Component> removed = new ArrayList<Component>();
+    for (ArrayDeque<Entry> entries : pool.values()) {
+      for (Entry entry : entries) {
+        removed.add(entry.component);
+      }
+    }
+    pool.clear();
+    return removed;
+  }
+
+  public synchronized YailDictionary getStats() {
+    int size = 0;
+    for (ArrayDeque<Entry> entries : pool.values()) {
+      size += entries.size();
+    }
+    YailDictionary stats = new YailDictionary();
+    stats.put("hits", hits);
+    stats.put("misses", misses);
+    stats.put("evictions", evictions);
+    stats.put("size", size);
+    stats.put("capacity", capacity);
+    return stats;
+  }
+
+  /*
+      Set every designer property of the component back to its default
+      value, and the size and visibility, which can also be changed from
+      blocks. Returns false if any of them couldn't be reset, in which
+      case the component shouldn't be used again.
+  */
+  public static boolean resetToDefaults(Component component) {
+    for (DesignerDefault designerDefault : getDefaults(component.getClass())) {
+      try {
+        final Object[] parameters = new Object[] { designerDefault.value };
+        designerDefault.setter.convertParameters(parameters);
+        designerDefault.setter.invoke(component, parameters);
+      } catch (Exception e) {
+        Log.w(TAG, "Couldn't reset the property '" + designerDefault.setter.method.getName() + "': " + e);
+        return false;
+      }
+    }
+    try {
+      Utils.callMethod(component, "Width", new Object[] { Component.LENGTH_PREFERRED });
+      Utils.callMethod(component, "Height", new Object[] { Component.LENGTH_PREFERRED });
+      Utils.callMethod(component, "Visible", new Object[] { true });
+    } catch (RuntimeException e) {
+      Log.w(TAG, "Couldn't reset the size of the component: " + e);
+      return false;
+    }
+    return true;
+  }
+
+  /*
+      Parse a color in the "&HAARRGGBB" format that App Inventor uses
+      for default values. Returns the text as-is if it isn't one.
+  */
+  private static Object parseColor(String value) {
+    if (value.startsWith("&H") || value.startsWith("&h")) {
+      try {
+        return (int) Long.parseLong(value.substring(2), 16);
+      } catch (NumberFormatException e) {
+        // Left to fail when it is set.
+      }
+    }
+    return value;
+  }
+
+  private static DesignerDefault[] getDefaults(Class<?> clazz) {
+    DesignerDefault[] defaults = DEFAULTS.get(clazz);
+    if (defaults == null) {
+      final ArrayList<DesignerDefault> found = new ArrayList<DesignerDefault>();
+      for (Method method : clazz.getMethods()) {
+        final DesignerProperty annotation = method.getAnnotation(DesignerProperty.class);
+        if (annotation != null && method.getParameterTypes().length == 1) {
+          final String value = annotation.defaultValue();
+          found.add(new DesignerDefault(
+            new ResolvedMethod(method),
+            PropertyTypeConstants.PROPERTY_TYPE_COLOR.equals(annotation.editorType()) ? parseColor(value) : value
+          ));
+        }
+      }
+      defaults = found.toArray(new DesignerDefault[found.size()]);
+      DEFAULTS.put(clazz, defaults);
+    }
+    return defaults;
+  }
+}
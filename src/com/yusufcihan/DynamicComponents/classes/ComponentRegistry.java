@@ -0,0 +1,236 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.google.appinventor.components.runtime.AndroidViewComponent;
+import com.google.appinventor.components.runtime.Component;
+
+/*
+    Components created with Dynamic Components, indexed both by their IDs
+    and by the components themselves. IDs are kept sorted, so components
+    whose IDs start with a prefix can be found as a range.
+
+    The reverse index compares components by identity, not by equals().
+    Both indexes are concurrent maps, so components can be registered from
+    any thread without locking the whole registry.
+
+    If a component is created in another dynamic component, it is
+    recorded as a child of it, so a whole subtree can be found from its
+    root component.
+*/
+public class ComponentRegistry {
+  public static final class Entry {
+    private volatile String id;
+    public final Component component;
+    // Container that the component has been created in.
+    public final AndroidViewComponent container;
+    // Entry of the container if it is also a dynamic component, otherwise null.
+    public final Entry parent;
+    private final Set<Entry> children = Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>());
+
+    Entry(String id, Component component, AndroidViewComponent container, Entry parent) {
+      this.id = id;
+      this.component = component;
+      this.container = container;
+      this.parent = parent;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public boolean hasChildren() {
+      return !children.isEmpty();
+    }
+  }
+
+  private static final class IdentityKey {
+    final Object object;
+
+    IdentityKey(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(object);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IdentityKey && ((IdentityKey) other).object == object;
+    }
+  }
+
+  private final ConcurrentSkipListMap<String, Entry> byId = new ConcurrentSkipListMap<String, Entry>();
+  private final ConcurrentHashMap<IdentityKey, Entry> byComponent = new ConcurrentHashMap<IdentityKey, Entry>();
+
+  /*
+      Register a component with an ID. Returns false if the ID is already taken.
+  */
+  public boolean register(String id, Component component, AndroidViewComponent container) {
+    final Entry parent = container == null ? null : byComponent.get(new IdentityKey(container));
+    final Entry entry = new Entry(id, component, container, parent);
+    if (byId.putIfAbsent(id, entry) != null) {
+      return false;
+    }
+    byComponent.put(new IdentityKey(component), entry);
+    if (parent != null) {
+      parent.children.add(entry);
+    }
+    return true;
+  }
+
+  public boolean contains(String id) {
+    return byId.containsKey(id);
+  }
+
+  public boolean contains(Component component) {
+    return byComponent.containsKey(new IdentityKey(component));
+  }
+
+  public Component get(String id) {
+    final Entry entry = byId.get(id);
+    return entry == null ? null : entry.component;
+  }
+
+  public Entry getEntry(String id) {
+    return byId.get(id);
+  }
+
+  public Entry getEntry(Component component) {
+    return byComponent.get(new IdentityKey(component));
+  }
+
+  public String getId(Component component) {
+    final Entry entry = byComponent.get(new IdentityKey(component));
+    return entry == null ? null : entry.id;
+  }
+
+  /*
+      Remove a component by its ID. Returns the removed entry, or null.
+  */
+  public Entry unregister(String id) {
+    final Entry entry = byId.remove(id);
+    if (entry != null) {
+      byComponent.remove(new IdentityKey(entry.component), entry);
+      detachFromParent(entry);
+    }
+    return entry;
+  }
+
+  /*
+      Remove a component. Returns the removed entry, or null.
+  */
+  public Entry unregister(Component component) {
+    final Entry entry = byComponent.remove(new IdentityKey(component));
+    if (entry != null) {
+      byId.remove(entry.id, entry);
+      detachFromParent(entry);
+    }
+    return entry;
+  }
+
+  private static void detachFromParent(Entry entry) {
+    if (entry.parent != null) {
+      entry.parent.children.remove(entry);
+    }
+  }
+
+  /*
+      The entry and all of its descendants, children always come
+      before their parents, so the given entry is the last one.
+  */
+  public List<Entry> subtree(Entry root) {
+    final ArrayList<Entry> entries = new ArrayList<Entry>();
+    collectChildrenFirst(root, entries);
+    return entries;
+  }
+
+  private static void collectChildrenFirst(Entry entry, List<Entry> entries) {
+    for (Entry child : entry.children) {
+      collectChildrenFirst(child, entries);
+    }
+    entries.add(entry);
+  }
+
+  /*
+      Move a component to a new ID. Returns false if the old ID
+      doesn't exist or the new ID is already taken.
+  */
+  public boolean rename(String id, String newId) {
+    final Entry entry = byId.get(id);
+    if (entry == null || byId.putIfAbsent(newId, entry) != null) {
+      return false;
+    }
+    byId.remove(id, entry);
+    entry.id = newId;
+    return true;
+  }
+
+  /*
+      Rename an ID and the IDs under it (see idsInSubtree()) by replacing
+      their beginning. Nothing is changed and false is returned if any of
+      the new IDs is already taken by a component that is not being renamed.
+  */
+  public boolean renameSubtree(String prefix, String newPrefix) {
+    final List<String> ids = idsInSubtree(prefix);
+    final Set<String> renamed = new HashSet<String>(ids);
+    for (String id : ids) {
+      final String newId = newPrefix + id.substring(prefix.length());
+      if (byId.containsKey(newId) && !renamed.contains(newId)) {
+        return false;
+      }
+    }
+    // Take all of them out first, renamed IDs can be in the renamed range too.
+    final ArrayList<Entry> entries = new ArrayList<Entry>();
+    for (String id : ids) {
+      final Entry entry = byId.remove(id);
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    for (Entry entry : entries) {
+      entry.id = newPrefix + entry.id.substring(prefix.length());
+      byId.put(entry.id, entry);
+    }
+    return true;
+  }
+
+  /*
+      IDs that start with the given prefix, in sorted order.
+  */
+  public List<String> idsWithPrefix(String prefix) {
+    final ConcurrentNavigableMap<String, Entry> range = byId.subMap(prefix, prefix + Character.MAX_VALUE);
+    return new ArrayList<String>(range.keySet());
+  }
+
+  /*
+      The ID itself and the IDs under it in the "parent.child" format,
+      which start with the ID and a dot, in sorted order. IDs that only
+      start with the same text, like "card42" for "card4", are not included.
+  */
+  public List<String> idsInSubtree(String id) {
+    final ArrayList<String> ids = new ArrayList<String>();
+    if (byId.containsKey(id)) {
+      ids.add(id);
+    }
+    ids.addAll(idsWithPrefix(id + "."));
+    return ids;
+  }
+
+  public List<String> ids() {
+    return new ArrayList<String>(byId.keySet());
+  }
+
+  public int size() {
+    return byId.size();
+  }
+}
@@ -0,0 +1,18 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.lang.reflect.Constructor;
+
+public final class ComponentType {
+  public final Class<?> type;
+  public final Constructor<?> constructor;
+  public final String simpleName;
+  // Canvas components needs to be initialized with invoking "Initialize" method.
+  public final boolean requiresInitialize;
+
+  ComponentType(Class<?> type, Constructor<?> constructor, boolean requiresInitialize) {
+    this.type = type;
+    this.constructor = constructor;
+    this.simpleName = type.getSimpleName();
+    this.requiresInitialize = requiresInitialize;
+  }
+}
@@ -0,0 +1,92 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.appinventor.components.runtime.Component;
+import com.google.appinventor.components.runtime.ComponentContainer;
+import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+
+public class ComponentTypes {
+  private static final String TAG = Utils.TAG;
+  private static final List<String> canvasComponents = Arrays.asList("Ball", "ImageSprite", "Sprite");
+  // Upper bound for remembered unknown names, so random input can't grow it forever.
+  private static final int MAX_UNKNOWN_NAMES = 256;
+
+  // Type names (as given by the user) -> resolved component type
+  private static final ConcurrentHashMap<String, ComponentType> TYPES_BY_NAME =
+    new ConcurrentHashMap<String, ComponentType>();
+
+  // Component classes (from component blocks) -> resolved component type
+  private static final ConcurrentHashMap<Class<?>, ComponentType> TYPES_BY_CLASS =
+    new ConcurrentHashMap<Class<?>, ComponentType>();
+
+  // Type names that couldn't be resolved -> reason
+  private static final ConcurrentHashMap<String, String> UNKNOWN_NAMES =
+    new ConcurrentHashMap<String, String>();
+
+  /*
+      Resolve a component name, full class name or a component block
+      to its class and constructor. Each name and class is only looked
+      up once, names that don't exist fail without loading classes again.
+  */
+  public static ComponentType resolve(Object componentName) {
+    if (componentName instanceof String) {
+      final String name = (String) componentName;
+      ComponentType resolved = TYPES_BY_NAME.get(name);
+      if (resolved != null) {
+        return resolved;
+      }
+      String reason = UNKNOWN_NAMES.get(name);
+      if (reason != null) {
+        throw new YailRuntimeError(reason, TAG);
+      }
+      final long begin = Stats.begin();
+      try {
+        resolved = resolveClass(Class.forName(Utils.getClassName(name)));
+      } catch (Exception e) {
+        throw unknown(name, "Couldn't find the component type '" + name + "'.");
+      } catch (LinkageError e) {
+        // Thrown by static initializers and missing dependencies of the class.
+        throw unknown(name, "Couldn't load the component type '" + name + "': " + e);
+      }
+      Stats.end("reflection.type", begin);
+      TYPES_BY_NAME.put(name, resolved);
+      return resolved;
+    } else if (componentName instanceof Component) {
+      try {
+        return resolveClass(componentName.getClass());
+      } catch (NoSuchMethodException e) {
+        throw new YailRuntimeError("Component is invalid.", TAG);
+      }
+    }
+    throw new YailRuntimeError("Component is invalid.", TAG);
+  }
+
+  /*
+      Remember that a name couldn't be resolved, and return the error
+      that is thrown for it.
+  */
+  private static YailRuntimeError unknown(String name, String reason) {
+    if (UNKNOWN_NAMES.size() >= MAX_UNKNOWN_NAMES) {
+      UNKNOWN_NAMES.clear();
+    }
+    UNKNOWN_NAMES.put(name, reason);
+    return new YailRuntimeError(reason, TAG);
+  }
+
+  private static ComponentType resolveClass(Class<?> clazz) throws NoSuchMethodException {
+    ComponentType resolved = TYPES_BY_CLASS.get(clazz);
+    if (resolved == null) {
+      final Constructor<?> constructor = clazz.getConstructor(ComponentContainer.class);
+      resolved = new ComponentType(clazz, constructor, canvasComponents.contains(clazz.getSimpleName()));
+      final ComponentType existing = TYPES_BY_CLASS.putIfAbsent(clazz, resolved);
+      if (existing != null) {
+        resolved = existing;
+      }
+    }
+    return resolved;
+  }
+}
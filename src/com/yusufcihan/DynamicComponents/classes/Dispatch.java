@@ -0,0 +1,62 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import android.util.Log;
+
+/*
+    Loads the generated dispatcher of the stock components once. If it
+    hasn't been generated (when the extension is built without the App
+    Inventor runtime jar), all methods are called with reflection.
+*/
+final class Dispatch {
+  private static final String TAG = Utils.TAG;
+  private static final String STOCK_DISPATCH = "com.yusufcihan.DynamicComponents.classes.StockDispatch";
+
+  private static final Dispatcher STOCK = load();
+
+  private Dispatch() {
+  }
+
+  private static Dispatcher load() {
+    try {
+      return (Dispatcher) Class.forName(STOCK_DISPATCH).getDeclaredConstructor().newInstance();
+    } catch (ClassNotFoundException e) {
+      Log.i(TAG, "Generated dispatcher is not available, falling back to reflection.");
+    } catch (NoSuchMethodException e) {
+      Log.w(TAG, "Couldn't create the generated dispatcher: " + e);
+    } catch (InstantiationException e) {
+      Log.w(TAG, "Couldn't create the generated dispatcher: " + e);
+    } catch (IllegalAccessException e) {
+      Log.w(TAG, "Couldn't create the generated dispatcher: " + e);
+    } catch (InvocationTargetException e) {
+      Log.w(TAG, "Couldn't create the generated dispatcher: " + e.getCause());
+    }
+    return null;
+  }
+
+  /*
+      Returns the dispatch ID of a method, or Dispatcher.NONE if it needs
+      to be called with reflection.
+  */
+  static int idOf(Method method) {
+    if (STOCK == null) {
+      return Dispatcher.NONE;
+    }
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    final StringBuilder types = new StringBuilder();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        types.append(',');
+      }
+      types.append(parameterTypes[i].getName());
+    }
+    return STOCK.id(method.getDeclaringClass().getName(), method.getName(), types.toString(),
+      method.getReturnType().getName());
+  }
+
+  static Object invoke(int id, Object target, Object[] parameters) {
+    return STOCK.invoke(id, target, parameters);
+  }
+}
@@ -0,0 +1,24 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+/*
+    Calls methods of known component classes directly instead of going
+    through reflection. An implementation for the stock components is
+    generated at build time (see tools/DispatchGenerator.java) as the
+    StockDispatch class.
+*/
+public interface Dispatcher {
+  int NONE = -1;
+
+  /*
+      Returns the ID of the method with the given name, parameter types
+      (class names separated with commas) and return type that is declared
+      in the given class, or NONE if the method can't be dispatched.
+  */
+  int id(String className, String methodName, String parameterTypes, String returnType);
+
+  /*
+      Calls the method with the given ID. Parameters are expected to be
+      converted to the types of the method already.
+  */
+  Object invoke(int id, Object target, Object[] parameters);
+}
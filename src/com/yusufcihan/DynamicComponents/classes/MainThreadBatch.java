@@ -0,0 +1,148 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.ArrayList;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/*
+    Collects work that needs to run on the main thread while a batch
+    is open, and posts all of it as a single message when the batch
+    is closed. Work is run in the same order it has been added.
+
+    Work that is added when no batch is open is posted right away as
+    a batch of its own.
+
+    If some work of a batch throws, the rest of it is skipped, except
+    the work added with postFinally(), which is used to close what has
+    been opened earlier in the same batch.
+*/
+public class MainThreadBatch {
+  private final Handler handler = new Handler(Looper.getMainLooper());
+
+  private static final class Finally implements Runnable {
+    final Runnable runnable;
+
+    Finally(Runnable runnable) {
+      this.runnable = runnable;
+    }
+
+    @Override
+    public void run() {
+      runnable.run();
+    }
+  }
+
+  // Work collected while a batch is open (caller thread)
+  private ArrayList<Runnable> pending = null;
+  private int depth = 0;
+
+  // Work deferred to the end of the batch that is currently running (main thread)
+  private ArrayList<Runnable> deferred = null;
+
+  public Handler getHandler() {
+    return handler;
+  }
+
+  public void begin() {
+    depth++;
+  }
+
+  public void end() {
+    if (depth == 0) {
+      return;
+    }
+    depth--;
+    if (depth == 0 && pending != null) {
+      final ArrayList<Runnable> work = pending;
+      pending = null;
+      Stats.count("ui.post");
+      handler.post(new Runnable() {
+        @Override
+        public void run() {
+          runAll(work);
+        }
+      });
+    }
+  }
+
+  public void post(Runnable runnable) {
+    if (depth > 0) {
+      if (pending == null) {
+        pending = new ArrayList<Runnable>();
+      }
+      pending.add(runnable);
+    } else {
+      final ArrayList<Runnable> work = new ArrayList<Runnable>(1);
+      work.add(runnable);
+      Stats.count("ui.post");
+      handler.post(new Runnable() {
+        @Override
+        public void run() {
+          runAll(work);
+        }
+      });
+    }
+  }
+
+  /*
+      Same as post(), but the work is also run if some work that has
+      been added before it in the same batch throws.
+  */
+  public void postFinally(Runnable runnable) {
+    post(new Finally(runnable));
+  }
+
+  /*
+      If a batch is currently being run on the main thread, run the
+      given work after the rest of the batch instead of posting a new
+      message for it. Returns false if there is no running batch.
+  */
+  public boolean defer(Runnable runnable) {
+    if (deferred == null || Looper.myLooper() != handler.getLooper()) {
+      return false;
+    }
+    deferred.add(runnable);
+    return true;
+  }
+
+  private void runAll(ArrayList<Runnable> work) {
+    final long begin = Stats.begin();
+    final ArrayList<Runnable> outer = deferred;
+    deferred = new ArrayList<Runnable>();
+    try {
+      for (int i = 0; i < work.size(); i++) {
+        try {
+          work.get(i).run();
+        } catch (RuntimeException e) {
+          runFinally(work, i + 1);
+          throw e;
+        } catch (Error e) {
+          runFinally(work, i + 1);
+          throw e;
+        }
+      }
+      // Deferred work can defer more work, so don't use an iterator here.
+      for (int i = 0; i < deferred.size(); i++) {
+        deferred.get(i).run();
+      }
+    } finally {
+      deferred = outer;
+      Stats.end("ui.batch", begin);
+    }
+  }
+
+  private static void runFinally(ArrayList<Runnable> work, int from) {
+    for (int i = from; i < work.size(); i++) {
+      if (work.get(i) instanceof Finally) {
+        try {
+          work.get(i).run();
+        } catch (RuntimeException e) {
+          // The original error is the one that is reported.
+          Log.e(Utils.TAG, "Couldn't close a failed batch: " + e);
+        }
+      }
+    }
+  }
+}
@@ -2,6 +2,10 @@ package com.yusufcihan.DynamicComponents.classes;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.appinventor.components.annotations.DesignerComponent;
 import com.google.appinventor.components.annotations.DesignerProperty;
@@ -47,6 +51,52 @@ public class Metadata {
     return mMeta;
   }
 
+  /*
+      Static metadata of a method with the requested annotation.
+  */
+  private static final class AnnotatedMethod {
+    final String name;
+    final Object description;
+    final Object userVisible;
+    final boolean isDeprecated;
+
+    AnnotatedMethod(String name, Object description, Object userVisible, boolean isDeprecated) {
+      this.name = name;
+      this.description = description;
+      this.userVisible = userVisible;
+      this.isDeprecated = isDeprecated;
+    }
+  }
+
+  /*
+      Static metadata of a property, merged from its getter and setter.
+  */
+  private static final class PropertyInfo {
+    final String name;
+    // Null for properties that can only be set.
+    final Method getter;
+    final SimpleProperty property;
+    // Null if the property is not a designer property.
+    final DesignerProperty designer;
+    final boolean isDeprecated;
+
+    PropertyInfo(String name, Method getter, SimpleProperty property, DesignerProperty designer, boolean isDeprecated) {
+      this.name = name;
+      this.getter = getter;
+      this.property = property;
+      this.designer = designer;
+      this.isDeprecated = isDeprecated;
+    }
+  }
+
+  // Component class -> annotation class -> methods with that annotation
+  private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, AnnotatedMethod[]>> ANNOTATIONS =
+    new ConcurrentHashMap<Class<?>, ConcurrentHashMap<Class<?>, AnnotatedMethod[]>>();
+
+  // Component class -> properties
+  private static final ConcurrentHashMap<Class<?>, PropertyInfo[]> PROPERTIES =
+    new ConcurrentHashMap<Class<?>, PropertyInfo[]>();
+
   @SuppressWarnings({"rawtypes", "unchecked"})
   public static YailDictionary getComponentAnnotationInfo(Component component, Class annotationClass)
   throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
@@ -54,55 +104,126 @@ public class Metadata {
     if (component == null) {
       return dictionaries;
     }
-    for (Method method : component.getClass().getMethods()) {
+    for (AnnotatedMethod method : getAnnotatedMethods(component.getClass(), annotationClass)) {
       YailDictionary dictionary = new YailDictionary();
-      Object annotation = method.getAnnotation(annotationClass);
-      Class annotationC = annotation.getClass();
-      final boolean isDeprecated = method.getAnnotation(Deprecated.class) != null;
-      final String methodName = method.getName();
+      dictionary.put("description", method.description);
+      dictionary.put("isDeprecated", method.isDeprecated);
+      dictionary.put("userVisible", method.userVisible);
+      dictionaries.put(method.name, dictionary);
+    }
+    return dictionaries;
+  }
 
-      if (annotation != null) {
-        dictionary.put("description", annotationC.getMethod("description").invoke(annotation));
-        dictionary.put("isDeprecated", isDeprecated);
-        dictionary.put("userVisible", annotationC.getMethod("userVisible").invoke(annotation));
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static AnnotatedMethod[] getAnnotatedMethods(Class<?> mClass, Class annotationClass)
+  throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+    ConcurrentHashMap<Class<?>, AnnotatedMethod[]> classAnnotations = ANNOTATIONS.get(mClass);
+    if (classAnnotations == null) {
+      classAnnotations = new ConcurrentHashMap<Class<?>, AnnotatedMethod[]>();
+      ConcurrentHashMap<Class<?>, AnnotatedMethod[]> existing = ANNOTATIONS.putIfAbsent(mClass, classAnnotations);
+      if (existing != null) {
+        classAnnotations = existing;
       }
-      dictionary.put("isDeprecated", isDeprecated);
-      dictionaries.put(methodName, dictionary);
     }
-    return dictionaries;
+    AnnotatedMethod[] methods = classAnnotations.get(annotationClass);
+    if (methods != null) {
+      return methods;
+    }
+    ArrayList<AnnotatedMethod> found = new ArrayList<AnnotatedMethod>();
+    for (Method method : mClass.getMethods()) {
+      Object annotation = method.getAnnotation(annotationClass);
+      if (annotation == null) {
+        continue;
+      }
+      Class annotationC = annotation.getClass();
+      found.add(new AnnotatedMethod(
+        method.getName(),
+        annotationC.getMethod("description").invoke(annotation),
+        annotationC.getMethod("userVisible").invoke(annotation),
+        method.getAnnotation(Deprecated.class) != null
+      ));
+    }
+    methods = found.toArray(new AnnotatedMethod[found.size()]);
+    classAnnotations.put(annotationClass, methods);
+    return methods;
   }
 
   public static YailDictionary getComponentPropertyInfo(Component component)
   throws IllegalAccessException, InvocationTargetException {
-    Method[] mMethods = component.getClass().getMethods();
     YailDictionary mProperties = new YailDictionary();
 
-    for (Method mMethod : mMethods) {
-      DesignerProperty mDesignerAnnotation = mMethod.getAnnotation(DesignerProperty.class);
-      SimpleProperty mPropertyAnnotation = mMethod.getAnnotation(SimpleProperty.class);
+    for (PropertyInfo mProperty : getProperties(component.getClass())) {
       YailDictionary mPropertyMeta = new YailDictionary();
-      Object mValue = mMethod.invoke(component, new Object[] { });
-
-      if (mPropertyAnnotation != null) {
-        mPropertyMeta.put("description", mPropertyAnnotation.description());
-        mPropertyMeta.put("category", mPropertyAnnotation.category());
-
-        if (mDesignerAnnotation != null) {
-          YailDictionary mDesignerMeta = new YailDictionary();
-          mDesignerMeta.put("defaultValue", mDesignerAnnotation.defaultValue());
-          mDesignerMeta.put("editorArgs", mDesignerAnnotation.editorArgs());
-          mDesignerMeta.put("editorType", mDesignerAnnotation.editorType());
-          mPropertyMeta.put("designer", mDesignerMeta);
-        }
-
-        mPropertyMeta.put("isDeprecated", mMethod.getAnnotation(Deprecated.class) != null);
-        mPropertyMeta.put("isDesignerProperty", mDesignerAnnotation != null);
-        mPropertyMeta.put("userVisible", mPropertyAnnotation.userVisible());
-        mPropertyMeta.put("value", mValue);
-        mProperties.put(mMethod.getName(), mPropertyMeta);
+      mPropertyMeta.put("description", mProperty.property.description());
+      mPropertyMeta.put("category", mProperty.property.category());
+
+      if (mProperty.designer != null) {
+        YailDictionary mDesignerMeta = new YailDictionary();
+        mDesignerMeta.put("defaultValue", mProperty.designer.defaultValue());
+        mDesignerMeta.put("editorArgs", mProperty.designer.editorArgs());
+        mDesignerMeta.put("editorType", mProperty.designer.editorType());
+        mPropertyMeta.put("designer", mDesignerMeta);
+      }
+
+      mPropertyMeta.put("isDeprecated", mProperty.isDeprecated);
+      mPropertyMeta.put("isDesignerProperty", mProperty.designer != null);
+      mPropertyMeta.put("userVisible", mProperty.property.userVisible());
+      if (mProperty.getter != null) {
+        mPropertyMeta.put("value", mProperty.getter.invoke(component));
       }
+      mProperties.put(mProperty.name, mPropertyMeta);
     }
 
     return mProperties;
   }
+
+  /*
+      Find the properties of a component class. A property is described
+      by its getter if it has one, and the designer metadata is read from
+      its setter.
+  */
+  private static PropertyInfo[] getProperties(Class<?> mClass) {
+    PropertyInfo[] properties = PROPERTIES.get(mClass);
+    if (properties != null) {
+      return properties;
+    }
+    LinkedHashMap<String, Method> getters = new LinkedHashMap<String, Method>();
+    LinkedHashMap<String, Method> setters = new LinkedHashMap<String, Method>();
+    for (Method mMethod : mClass.getMethods()) {
+      if (mMethod.getAnnotation(SimpleProperty.class) == null && mMethod.getAnnotation(DesignerProperty.class) == null) {
+        continue;
+      }
+      int mParameterCount = mMethod.getParameterTypes().length;
+      if (mParameterCount == 0 && mMethod.getReturnType() != void.class) {
+        getters.put(mMethod.getName(), mMethod);
+      } else if (mParameterCount == 1) {
+        setters.put(mMethod.getName(), mMethod);
+      }
+    }
+    LinkedHashSet<String> names = new LinkedHashSet<String>(getters.keySet());
+    names.addAll(setters.keySet());
+    ArrayList<PropertyInfo> found = new ArrayList<PropertyInfo>();
+    for (String name : names) {
+      Method mGetter = getters.get(name);
+      Method mSetter = setters.get(name);
+      SimpleProperty mPropertyAnnotation = mGetter != null ? mGetter.getAnnotation(SimpleProperty.class) : null;
+      if (mPropertyAnnotation == null && mSetter != null) {
+        mPropertyAnnotation = mSetter.getAnnotation(SimpleProperty.class);
+      }
+      if (mPropertyAnnotation == null) {
+        continue;
+      }
+      Method mDescribed = mGetter != null ? mGetter : mSetter;
+      found.add(new PropertyInfo(
+        name,
+        mGetter,
+        mPropertyAnnotation,
+        mSetter != null ? mSetter.getAnnotation(DesignerProperty.class) : null,
+        mDescribed.getAnnotation(Deprecated.class) != null
+      ));
+    }
+    properties = found.toArray(new PropertyInfo[found.size()]);
+    PROPERTIES.put(mClass, properties);
+    return properties;
+  }
 }
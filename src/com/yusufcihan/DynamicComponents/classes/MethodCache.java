@@ -0,0 +1,124 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.google.appinventor.components.runtime.util.YailDictionary;
+
+public class MethodCache {
+  private static final Pattern methodNamePattern = Pattern.compile("[^a-zA-Z0-9]");
+  private static final ResolvedMethod[] NO_METHODS = new ResolvedMethod[0];
+
+  /*
+      Class -> requested method name -> every public method with that
+      name, in the same order as Class.getMethods() returns them. An
+      empty array is kept for names that don't exist, so unknown names
+      are not looked up again.
+  */
+  private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, ResolvedMethod[]>> CACHE =
+    new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, ResolvedMethod[]>>();
+
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+
+  /*
+      Find a method of a class by its name and parameter count. The
+      result is resolved only once for each class and name, later calls
+      are served from the cache. Return null if not found.
+  */
+  public static ResolvedMethod find(Class<?> clazz, String name, int parameterCount) {
+    final ConcurrentHashMap<String, ResolvedMethod[]> classMethods = classMethods(clazz);
+    ResolvedMethod[] candidates = classMethods.get(name);
+    if (candidates == null) {
+      misses.incrementAndGet();
+      final long begin = Stats.begin();
+      candidates = resolve(clazz, name);
+      Stats.end("reflection.method", begin);
+      classMethods.put(name, candidates);
+    } else {
+      hits.incrementAndGet();
+    }
+    for (ResolvedMethod candidate : candidates) {
+      if (candidate.getParameterCount() == parameterCount) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /*
+      Resolve all public methods of a class at once, so the first calls
+      of each method don't need to look it up. Names that are already in
+      the cache are kept. This doesn't change the hit and miss counts.
+  */
+  public static void prewarm(Class<?> clazz) {
+    final ConcurrentHashMap<String, ResolvedMethod[]> classMethods = classMethods(clazz);
+    final LinkedHashMap<String, ArrayList<ResolvedMethod>> found = new LinkedHashMap<String, ArrayList<ResolvedMethod>>();
+    for (Method method : clazz.getMethods()) {
+      ArrayList<ResolvedMethod> candidates = found.get(method.getName());
+      if (candidates == null) {
+        candidates = new ArrayList<ResolvedMethod>();
+        found.put(method.getName(), candidates);
+      }
+      candidates.add(new ResolvedMethod(method));
+    }
+    for (Map.Entry<String, ArrayList<ResolvedMethod>> entry : found.entrySet()) {
+      final ArrayList<ResolvedMethod> candidates = entry.getValue();
+      classMethods.putIfAbsent(entry.getKey(), candidates.toArray(new ResolvedMethod[candidates.size()]));
+    }
+  }
+
+  private static ConcurrentHashMap<String, ResolvedMethod[]> classMethods(Class<?> clazz) {
+    ConcurrentHashMap<String, ResolvedMethod[]> classMethods = CACHE.get(clazz);
+    if (classMethods == null) {
+      final ConcurrentHashMap<String, ResolvedMethod[]> created = new ConcurrentHashMap<String, ResolvedMethod[]>();
+      classMethods = CACHE.putIfAbsent(clazz, created);
+      if (classMethods == null) {
+        classMethods = created;
+      }
+    }
+    return classMethods;
+  }
+
+  private static ResolvedMethod[] resolve(Class<?> clazz, String name) {
+    final String nameString = methodNamePattern.matcher(name).replaceAll("");
+    final ArrayList<ResolvedMethod> found = new ArrayList<ResolvedMethod>();
+    for (Method method : clazz.getMethods()) {
+      if (method.getName().equals(nameString)) {
+        found.add(new ResolvedMethod(method));
+      }
+    }
+    return found.isEmpty() ? NO_METHODS : found.toArray(new ResolvedMethod[found.size()]);
+  }
+
+  public static long getHits() {
+    return hits.get();
+  }
+
+  public static long getMisses() {
+    return misses.get();
+  }
+
+  public static YailDictionary getStats() {
+    int size = 0;
+    for (ConcurrentHashMap<String, ResolvedMethod[]> classMethods : CACHE.values()) {
+      size += classMethods.size();
+    }
+    YailDictionary stats = new YailDictionary();
+    stats.put("hits", hits.get());
+    stats.put("misses", misses.get());
+    stats.put("classes", CACHE.size());
+    stats.put("entries", size);
+    return stats;
+  }
+
+  public static void resetStats() {
+    hits.set(0);
+    misses.set(0);
+  }
+}
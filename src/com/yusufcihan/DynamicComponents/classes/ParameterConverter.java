@@ -0,0 +1,109 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+/*
+    Converts a value given from blocks to the type that a method
+    parameter expects. Converters are picked once when a method is
+    resolved, so each call only runs the converter of its slot.
+
+    Numbers are always boxed to the exact type of the parameter, so
+    the generated dispatcher, which only casts them, can be used for
+    them instead of reflection. Other values that already have a
+    suitable type are returned as-is.
+*/
+public abstract class ParameterConverter {
+  public abstract Object convert(Object value);
+
+  public static final ParameterConverter NONE = new ParameterConverter() {
+    @Override
+    public Object convert(Object value) {
+      return value;
+    }
+  };
+
+  public static final ParameterConverter INT = new ParameterConverter() {
+    @Override
+    public Object convert(Object value) {
+      if (value instanceof Integer) {
+        return value;
+      }
+      if (value instanceof Short || value instanceof Byte) {
+        return ((Number) value).intValue();
+      }
+      if (value instanceof Number) {
+        final Number number = (Number) value;
+        final int intValue = number.intValue();
+        // Only accept numbers without a fraction, others fail as they used to.
+        if (intValue == number.doubleValue()) {
+          return intValue;
+        }
+      }
+      return Integer.parseInt(String.valueOf(value));
+    }
+  };
+
+  public static final ParameterConverter FLOAT = new ParameterConverter() {
+    @Override
+    public Object convert(Object value) {
+      if (value instanceof Float) {
+        return value;
+      }
+      // Same as the widening conversion of integers that Method.invoke would do.
+      if (value instanceof Number) {
+        return ((Number) value).floatValue();
+      }
+      return Float.parseFloat(String.valueOf(value));
+    }
+  };
+
+  public static final ParameterConverter DOUBLE = new ParameterConverter() {
+    @Override
+    public Object convert(Object value) {
+      if (value instanceof Double) {
+        return value;
+      }
+      if (value instanceof Number) {
+        return ((Number) value).doubleValue();
+      }
+      return Double.parseDouble(String.valueOf(value));
+    }
+  };
+
+  public static final ParameterConverter BOOLEAN = new ParameterConverter() {
+    @Override
+    public Object convert(Object value) {
+      if (value instanceof Boolean) {
+        return value;
+      }
+      return Boolean.parseBoolean(String.valueOf(value));
+    }
+  };
+
+  public static final ParameterConverter STRING = new ParameterConverter() {
+    @Override
+    public Object convert(Object value) {
+      if (value instanceof String) {
+        return value;
+      }
+      return String.valueOf(value);
+    }
+  };
+
+  /*
+      Get the converter for a parameter type. Types other than the
+      common ones are passed without any conversion.
+  */
+  public static ParameterConverter forType(Class<?> type) {
+    if (type == int.class) {
+      return INT;
+    } else if (type == float.class) {
+      return FLOAT;
+    } else if (type == double.class) {
+      return DOUBLE;
+    } else if (type == boolean.class) {
+      return BOOLEAN;
+    } else if (type == String.class) {
+      return STRING;
+    }
+    return NONE;
+  }
+}
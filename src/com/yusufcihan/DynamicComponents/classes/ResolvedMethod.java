@@ -0,0 +1,102 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+public final class ResolvedMethod {
+  public final Method method;
+  public final Class<?>[] parameterTypes;
+  private final ParameterConverter[] converters;
+  // ID of the method in the generated dispatcher, or Dispatcher.NONE.
+  private int dispatchId;
+  // Parameter types with primitives replaced with their wrappers.
+  private final Class<?>[] boxedTypes;
+
+  ResolvedMethod(Method method) {
+    this.method = method;
+    this.parameterTypes = method.getParameterTypes();
+    this.converters = new ParameterConverter[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      converters[i] = ParameterConverter.forType(parameterTypes[i]);
+    }
+    this.dispatchId = Dispatch.idOf(method);
+    this.boxedTypes = new Class<?>[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      boxedTypes[i] = box(parameterTypes[i]);
+    }
+  }
+
+  private static Class<?> box(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return type;
+    } else if (type == int.class) {
+      return Integer.class;
+    } else if (type == boolean.class) {
+      return Boolean.class;
+    } else if (type == float.class) {
+      return Float.class;
+    } else if (type == double.class) {
+      return Double.class;
+    } else if (type == long.class) {
+      return Long.class;
+    } else if (type == short.class) {
+      return Short.class;
+    } else if (type == byte.class) {
+      return Byte.class;
+    } else if (type == char.class) {
+      return Character.class;
+    }
+    return Void.class;
+  }
+
+  /*
+      The generated dispatcher only casts the parameters, so it is only
+      used if they already have the exact types. Anything else (wrong
+      types, nulls for primitives, widening) is left to reflection.
+  */
+  private boolean canDispatch(Object object, Object[] parameters) {
+    if (dispatchId == Dispatcher.NONE || !method.getDeclaringClass().isInstance(object)
+        || parameters.length != boxedTypes.length) {
+      return false;
+    }
+    for (int i = 0; i < parameters.length; i++) {
+      if (parameters[i] == null ? parameterTypes[i].isPrimitive() : !boxedTypes[i].isInstance(parameters[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int getParameterCount() {
+    return parameterTypes.length;
+  }
+
+  /*
+      Convert the given parameters in place to the types of this method.
+  */
+  public void convertParameters(Object[] parameters) {
+    for (int i = 0; i < converters.length; i++) {
+      parameters[i] = converters[i].convert(parameters[i]);
+    }
+  }
+
+  public Object invoke(Object object, Object[] parameters)
+  throws IllegalAccessException, InvocationTargetException {
+    if (!canDispatch(object, parameters)) {
+      return method.invoke(object, parameters);
+    }
+    try {
+      return Dispatch.invoke(dispatchId, object, parameters);
+    } catch (LinkageError e) {
+      // The runtime is different from the one the dispatcher has been generated
+      // for, so use reflection for this method from now on.
+      dispatchId = Dispatcher.NONE;
+      return method.invoke(object, parameters);
+    } catch (RuntimeException e) {
+      // Report errors from the method in the same way as reflection does.
+      throw new InvocationTargetException(e);
+    } catch (Error e) {
+      throw new InvocationTargetException(e);
+    }
+  }
+}
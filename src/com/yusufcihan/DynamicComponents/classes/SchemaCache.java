@@ -0,0 +1,203 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import android.util.Log;
+
+/*
+    Keeps compiled schemas on the disk in the binary schema format, with
+    the SHA-256 hash of the template text as the file name, so the same
+    template doesn't need to be parsed again after the app is restarted.
+
+    Files are kept in a directory for each revision of the binary format
+    and of the way templates are compiled, and the directories of other
+    revisions are deleted in the background. REVISION must be increased
+    whenever compiling the same template can give a different result.
+    When the files are larger than the maximum size in total, the ones
+    that have been used least recently are deleted.
+
+    The cache is only an optimization, so failing to read or write it
+    is logged and otherwise ignored.
+*/
+public class SchemaCache {
+  private static final String TAG = Utils.TAG;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String EXTENSION = ".dcs";
+  private static final int REVISION = 1;
+
+  private final File directory;
+  private volatile long maxBytes;
+
+  public SchemaCache(File root, long maxBytes) {
+    this.directory = new File(root, "v" + BinarySchema.VERSION + "." + REVISION);
+    this.maxBytes = maxBytes;
+  }
+
+  /*
+      Delete the directories of other revisions. It goes through the
+      files on the disk, so it should be called from a background thread.
+  */
+  public void deleteOtherRevisions() {
+    final File[] revisions = directory.getParentFile().listFiles();
+    if (revisions != null) {
+      for (File file : revisions) {
+        if (!file.equals(directory)) {
+          delete(file);
+        }
+      }
+    }
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /*
+      Change the maximum size. Files over the new size are deleted by
+      the next put() or trim().
+  */
+  public void setMaxBytes(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /*
+      Delete the least recently used files if the cache is too large.
+      Like deleteOtherRevisions(), it should be called from a background thread.
+  */
+  public synchronized void trim() {
+    evict();
+  }
+
+  /*
+      Returns the cached schema of the template, or null if it hasn't
+      been cached yet.
+  */
+  public CompiledSchema get(String template) {
+    final File file = fileOf(template);
+    if (!file.isFile()) {
+      Stats.count("schema.cache.miss");
+      return null;
+    }
+    try {
+      final FileInputStream stream = new FileInputStream(file);
+      try {
+        final FileChannel channel = stream.getChannel();
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        final CompiledSchema schema = BinarySchema.read(buffer);
+        // The modification time is used as the last access time for the eviction.
+        file.setLastModified(System.currentTimeMillis());
+        Stats.count("schema.cache.hit");
+        return schema;
+      } finally {
+        stream.close();
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Couldn't read the cached schema: " + e.getMessage());
+    } catch (RuntimeException e) {
+      Log.w(TAG, "Deleting the invalid cached schema: " + e.getMessage());
+      file.delete();
+    }
+    Stats.count("schema.cache.miss");
+    return null;
+  }
+
+  /*
+      Write the compiled schema of the template to the cache, then delete
+      the least recently used files if the cache is too large.
+  */
+  public synchronized void put(String template, CompiledSchema schema) {
+    final long begin = Stats.begin();
+    final File file = fileOf(template);
+    // Written to another file first, so a half written file is never read.
+    final File temporary = new File(directory, file.getName() + ".tmp");
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Couldn't create " + directory);
+      }
+      final FileOutputStream stream = new FileOutputStream(temporary);
+      try {
+        stream.write(BinarySchema.write(schema));
+      } finally {
+        stream.close();
+      }
+      if (!temporary.renameTo(file)) {
+        throw new IOException("Couldn't rename " + temporary);
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Couldn't write the schema to the cache: " + e.getMessage());
+      temporary.delete();
+      return;
+    }
+    evict();
+    Stats.end("schema.cache.write", begin);
+  }
+
+  /*
+      Delete all cached schemas.
+  */
+  public synchronized void clear() {
+    delete(directory);
+  }
+
+  private void evict() {
+    final File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    long total = 0;
+    for (File file : files) {
+      total += file.length();
+    }
+    if (total <= maxBytes) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        final long difference = a.lastModified() - b.lastModified();
+        return difference < 0 ? -1 : difference > 0 ? 1 : 0;
+      }
+    });
+    for (int i = 0; i < files.length && total > maxBytes; i++) {
+      final long length = files[i].length();
+      if (files[i].delete()) {
+        total -= length;
+      }
+    }
+  }
+
+  private File fileOf(String template) {
+    final byte[] hash;
+    try {
+      hash = MessageDigest.getInstance("SHA-256").digest(template.getBytes(UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to have SHA-256.
+      throw new IllegalStateException(e);
+    }
+    final StringBuilder name = new StringBuilder(hash.length * 2 + EXTENSION.length());
+    for (byte b : hash) {
+      name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return new File(directory, name.append(EXTENSION).toString());
+  }
+
+  private static void delete(File file) {
+    final File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,228 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+
+/*
+    Reads a JSON template with a pull parser and reports each component
+    as soon as its ID and type are known, without keeping the template
+    or the flattened component list in memory. Only the components on
+    the current path of the tree are kept while reading.
+
+    Since parameters need to be known before the components are read,
+    "metadata-version" and "keys" must come before "components" in the
+    template, which is the order TemplateCreator writes them in.
+*/
+public class SchemaStreamReader {
+  private static final String TAG = Utils.TAG;
+
+  public interface Listener {
+    /*
+        Called when the ID and type of a component are known, before its
+        children. Properties that are written after the "components" of
+        a component are given later with onProperties().
+    */
+    void onComponent(String parentId, String id, String type, Map<String, Object> properties);
+
+    void onProperties(String id, Map<String, Object> properties);
+  }
+
+  private final JsonReader reader;
+  private final Object[] parameters;
+  private final Listener listener;
+  private final HashMap<String, Object> formatMapping = new HashMap<String, Object>();
+
+  private SchemaStreamReader(Reader reader, Object[] parameters, Listener listener) {
+    this.reader = new JsonReader(reader);
+    this.parameters = parameters;
+    this.listener = listener;
+  }
+
+  /*
+      Read a template and report its components to the listener in
+      creation order. Returns the name of the schema.
+  */
+  public static String read(Reader reader, Object[] parameters, Listener listener) throws IOException {
+    final SchemaStreamReader streamReader = new SchemaStreamReader(reader, parameters, listener);
+    try {
+      return streamReader.readSchema();
+    } finally {
+      streamReader.reader.close();
+    }
+  }
+
+  private String readSchema() throws IOException {
+    String name = "";
+    boolean hasVersion = false;
+    boolean hasKeys = false;
+    boolean hasComponents = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String key = reader.nextName();
+      if (key.equals("metadata-version")) {
+        if (!readScalar().equals("1")) {
+          throw new YailRuntimeError("Metadata version ('metadata-version' key in JSON) must equal to 1.", TAG);
+        }
+        hasVersion = true;
+      } else if (key.equals("name")) {
+        name = readScalar();
+      } else if (key.equals("keys")) {
+        if (hasComponents) {
+          throw new YailRuntimeError("The 'keys' of the template must come before its 'components'.", TAG);
+        }
+        readKeys();
+        hasKeys = true;
+      } else if (key.equals("components")) {
+        if (!hasVersion) {
+          throw new YailRuntimeError("Metadata version ('metadata-version' key in JSON) must equal to 1.", TAG);
+        }
+        if (!hasKeys) {
+          checkParameterCount(0);
+        }
+        hasComponents = true;
+        reader.beginArray();
+        while (reader.hasNext()) {
+          readComponent(null);
+        }
+        reader.endArray();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    if (!hasComponents) {
+      throw new YailRuntimeError("The template is empty, or is does not have any components.", TAG);
+    }
+    return name;
+  }
+
+  private void readKeys() throws IOException {
+    int count = 0;
+    reader.beginArray();
+    while (reader.hasNext()) {
+      final String key = reader.nextString();
+      if (count < parameters.length && !formatMapping.containsKey(key)) {
+        formatMapping.put(key, parameters[count]);
+      }
+      count++;
+    }
+    reader.endArray();
+    checkParameterCount(count);
+  }
+
+  private void checkParameterCount(int count) {
+    if (count != parameters.length) {
+      throw new YailRuntimeError(
+        "Given list of template parameters must contain same amount of items that defined in the schema. " +
+        "The template expects: " + count + ", but given parameters are: " + parameters.length, TAG
+      );
+    }
+  }
+
+  private void readComponent(String parentId) throws IOException {
+    String id = null;
+    String type = null;
+    Map<String, Object> properties = null;
+    boolean reported = false;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String key = reader.nextName();
+      if (key.equals("id")) {
+        id = formatText(reader.nextString());
+      } else if (key.equals("type")) {
+        type = formatText(reader.nextString());
+      } else if (key.equals("properties")) {
+        properties = readProperties();
+        if (reported) {
+          listener.onProperties(id, properties);
+        }
+      } else if (key.equals("components")) {
+        if (!reported) {
+          report(parentId, id, type, properties);
+          reported = true;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+          readComponent(id);
+        }
+        reader.endArray();
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    if (!reported) {
+      report(parentId, id, type, properties);
+    }
+  }
+
+  private void report(String parentId, String id, String type, Map<String, Object> properties) {
+    if (id == null || type == null) {
+      throw new YailRuntimeError("All components in the schema at least must have an 'id' and 'type'.", TAG);
+    }
+    listener.onComponent(parentId, id, type, properties == null ? new LinkedHashMap<String, Object>() : properties);
+  }
+
+  private Map<String, Object> readProperties() throws IOException {
+    final LinkedHashMap<String, Object> properties = new LinkedHashMap<String, Object>();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String key = formatText(reader.nextName());
+      final JsonToken token = reader.peek();
+      if (token == JsonToken.STRING) {
+        properties.put(key, TemplateString.format(reader.nextString(), formatMapping));
+      } else if (token == JsonToken.NUMBER) {
+        properties.put(key, parseNumber(reader.nextString()));
+      } else if (token == JsonToken.BOOLEAN) {
+        properties.put(key, reader.nextBoolean());
+      } else if (token == JsonToken.NULL) {
+        reader.nextNull();
+        properties.put(key, null);
+      } else {
+        Log.w(TAG, "Skipping the property '" + key + "', lists and objects are not supported while streaming.");
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return properties;
+  }
+
+  private String readScalar() throws IOException {
+    if (reader.peek() == JsonToken.BOOLEAN) {
+      return String.valueOf(reader.nextBoolean());
+    }
+    // Numbers can be read as strings too.
+    return reader.nextString();
+  }
+
+  private String formatText(String text) {
+    return String.valueOf(TemplateString.format(text, formatMapping));
+  }
+
+  /*
+      Keep the number types the same as org.json would give them.
+  */
+  private static Object parseNumber(String number) {
+    if (number.indexOf('.') == -1 && number.indexOf('e') == -1 && number.indexOf('E') == -1) {
+      try {
+        final long value = Long.parseLong(number);
+        if (value == (int) value) {
+          return (int) value;
+        }
+        return value;
+      } catch (NumberFormatException e) {
+        // Too large for a long, read it as a double below.
+      }
+    }
+    return Double.parseDouble(number);
+  }
+}
@@ -0,0 +1,153 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.appinventor.components.runtime.util.YailDictionary;
+import com.google.appinventor.components.runtime.util.YailList;
+
+/*
+    Counters and latency histograms of the work done by the extension,
+    shared by all instances of it. Nothing is recorded unless it has
+    been turned on, and callers are expected to check isRecording()
+    (or the value returned from begin()) before building metric names,
+    so it costs a single field read when it is turned off.
+
+    In the sampled mode only one of every SAMPLE_RATE events is recorded,
+    so the counts need to be multiplied with the sample rate to get the
+    real amounts.
+
+    Latencies are kept in buckets by powers of two in microseconds, the
+    bucket i holds the events that took less than 2^i microseconds.
+*/
+public class Stats {
+  public static final int OFF = 0;
+  public static final int ON = 1;
+  public static final int SAMPLED = 2;
+
+  // Must be a power of two.
+  public static final int SAMPLE_RATE = 16;
+  // Returned from begin() when the event shouldn't be recorded.
+  public static final long NOT_RECORDED = Long.MIN_VALUE;
+
+  private static final int BUCKETS = 32;
+
+  private static final class Metric {
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong timed = new AtomicLong();
+    final AtomicLong totalNanos = new AtomicLong();
+    final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  }
+
+  private static volatile int mode = OFF;
+  private static final AtomicLong ticket = new AtomicLong();
+  private static final ConcurrentHashMap<String, Metric> METRICS = new ConcurrentHashMap<String, Metric>();
+
+  public static void setMode(int newMode) {
+    mode = newMode;
+  }
+
+  public static int getMode() {
+    return mode;
+  }
+
+  /*
+      Returns true if the next event should be recorded.
+  */
+  public static boolean isRecording() {
+    final int current = mode;
+    if (current == OFF) {
+      return false;
+    }
+    return current == ON || (ticket.incrementAndGet() & (SAMPLE_RATE - 1)) == 0;
+  }
+
+  /*
+      Start timing an event. Returns NOT_RECORDED if the event shouldn't
+      be recorded, in which case end() doesn't need to be called.
+  */
+  public static long begin() {
+    return isRecording() ? System.nanoTime() : NOT_RECORDED;
+  }
+
+  /*
+      Record an event that has been started with begin().
+  */
+  public static void end(String name, long begin) {
+    if (begin == NOT_RECORDED) {
+      return;
+    }
+    final long nanos = System.nanoTime() - begin;
+    final Metric metric = metric(name);
+    metric.count.incrementAndGet();
+    metric.timed.incrementAndGet();
+    metric.totalNanos.addAndGet(nanos);
+    final long micros = nanos / 1000;
+    metric.buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+  }
+
+  /*
+      Count an event without timing it.
+  */
+  public static void count(String name) {
+    if (isRecording()) {
+      metric(name).count.incrementAndGet();
+    }
+  }
+
+  private static Metric metric(String name) {
+    Metric metric = METRICS.get(name);
+    if (metric == null) {
+      final Metric created = new Metric();
+      metric = METRICS.putIfAbsent(name, created);
+      if (metric == null) {
+        metric = created;
+      }
+    }
+    return metric;
+  }
+
+  /*
+      A snapshot of all metrics, sorted by their names. Metrics that have
+      been timed also contain the total and the histogram of latencies.
+  */
+  public static YailDictionary getStats() {
+    final YailDictionary metrics = new YailDictionary();
+    for (Map.Entry<String, Metric> entry : new TreeMap<String, Metric>(METRICS).entrySet()) {
+      final Metric metric = entry.getValue();
+      final YailDictionary values = new YailDictionary();
+      values.put("count", metric.count.get());
+      final long timed = metric.timed.get();
+      if (timed > 0) {
+        final long totalMicros = metric.totalNanos.get() / 1000;
+        values.put("totalMicros", totalMicros);
+        values.put("averageMicros", totalMicros / timed);
+        final ArrayList<Long> buckets = new ArrayList<Long>(BUCKETS);
+        int last = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+          buckets.add(metric.buckets.get(i));
+          if (buckets.get(i) > 0) {
+            last = i + 1;
+          }
+        }
+        values.put("histogram", YailList.makeList(buckets.subList(0, last)));
+      }
+      metrics.put(entry.getKey(), values);
+    }
+    final YailDictionary stats = new YailDictionary();
+    stats.put("mode", mode == ON ? "On" : mode == SAMPLED ? "Sampled" : "Off");
+    stats.put("sampleRate", mode == SAMPLED ? SAMPLE_RATE : 1);
+    stats.put("metrics", metrics);
+    stats.put("dispatchCache", MethodCache.getStats());
+    return stats;
+  }
+
+  public static void reset() {
+    METRICS.clear();
+    MethodCache.resetStats();
+  }
+}
@@ -0,0 +1,170 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.Map;
+
+/*
+    A text from a schema with the positions of its template parameters
+    already located, so formatting it only needs to join the parts.
+
+    "Hello, {name}!" -> ["Hello, ", "!"] and [index of "name"]
+*/
+public final class TemplateString {
+  private final String text;
+  // Literal parts, there is always one more literal than slots.
+  private final String[] literals;
+  // Parameter indexes that come after each literal part.
+  private final int[] slots;
+
+  private TemplateString(String text, String[] literals, int[] slots) {
+    this.text = text;
+    this.literals = literals;
+    this.slots = slots;
+  }
+
+  /*
+      Scan the text once and locate every "{key}" where the key is
+      one of the given parameter names. Braces around unknown keys
+      are kept as they are.
+  */
+  public static TemplateString compile(String text, Map<String, Integer> keyIndexes) {
+    if (keyIndexes.isEmpty() || text.indexOf('{') == -1) {
+      return new TemplateString(text, null, null);
+    }
+    String[] literals = new String[4];
+    int[] slots = new int[4];
+    int slotCount = 0;
+    int literalStart = 0;
+    int openBrace = -1;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c == '{') {
+        openBrace = i;
+      } else if (c == '}' && openBrace != -1) {
+        final Integer index = keyIndexes.get(text.substring(openBrace + 1, i));
+        if (index != null) {
+          if (slotCount == slots.length) {
+            literals = copyOf(literals, slotCount * 2 + 1);
+            slots = copyOf(slots, slotCount * 2);
+          }
+          literals[slotCount] = text.substring(literalStart, openBrace);
+          slots[slotCount] = index;
+          slotCount++;
+          literalStart = i + 1;
+        }
+        openBrace = -1;
+      }
+    }
+    if (slotCount == 0) {
+      return new TemplateString(text, null, null);
+    }
+    final String[] finalLiterals = new String[slotCount + 1];
+    System.arraycopy(literals, 0, finalLiterals, 0, slotCount);
+    finalLiterals[slotCount] = text.substring(literalStart);
+    return new TemplateString(text, finalLiterals, copyOf(slots, slotCount));
+  }
+
+  /*
+      Create a text whose parameters have already been located, as they
+      are stored in binary schemas. "literals" must have one more item
+      than "slots", or both must be null if the text has no parameters.
+  */
+  static TemplateString of(String text, String[] literals, int[] slots) {
+    return new TemplateString(text, literals, slots);
+  }
+
+  public boolean hasParameters() {
+    return slots != null;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  // Null if the text has no parameters.
+  String[] getLiterals() {
+    return literals;
+  }
+
+  // Null if the text has no parameters.
+  int[] getSlots() {
+    return slots;
+  }
+
+  /*
+      Same as format(), but if the whole text is a single parameter
+      like "{count}", the value is returned as-is, so a number parameter
+      stays a number instead of being turned into a text.
+  */
+  public Object bind(Object[] values) {
+    if (slots != null && slots.length == 1 && literals[0].isEmpty() && literals[1].isEmpty()) {
+      return values[slots[0]];
+    }
+    return format(values);
+  }
+
+  /*
+      Replace the located parameters with the given values.
+      Returns the original text if there are no parameters in it.
+  */
+  public String format(Object[] values) {
+    if (slots == null) {
+      return text;
+    }
+    final StringBuilder builder = new StringBuilder(text.length() + 16 * slots.length);
+    for (int i = 0; i < slots.length; i++) {
+      builder.append(literals[i]).append(values[slots[i]]);
+    }
+    return builder.append(literals[slots.length]).toString();
+  }
+
+  /*
+      Replace "{key}" parameters in a text in a single scan, without
+      compiling it first. The text is returned as-is when it doesn't
+      contain any parameter, and a text that only consists of a single
+      parameter returns the value itself, keeping its type.
+  */
+  public static Object format(String text, Map<String, ?> values) {
+    if (values.isEmpty() || text.indexOf('{') == -1) {
+      return text;
+    }
+    StringBuilder builder = null;
+    int literalStart = 0;
+    int openBrace = -1;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c == '{') {
+        openBrace = i;
+      } else if (c == '}' && openBrace != -1) {
+        final String key = text.substring(openBrace + 1, i);
+        if (values.containsKey(key)) {
+          final Object value = values.get(key);
+          if (openBrace == 0 && i == text.length() - 1) {
+            return value;
+          }
+          if (builder == null) {
+            builder = new StringBuilder(text.length() + 16);
+          }
+          builder.append(text, literalStart, openBrace).append(value);
+          literalStart = i + 1;
+        }
+        openBrace = -1;
+      }
+    }
+    if (builder == null) {
+      return text;
+    }
+    return builder.append(text, literalStart, text.length()).toString();
+  }
+
+  private static String[] copyOf(String[] array, int length) {
+    final String[] copy = new String[length];
+    System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+    return copy;
+  }
+
+  private static int[] copyOf(int[] array, int length) {
+    final int[] copy = new int[length];
+    System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+    return copy;
+  }
+}
@@ -1,11 +1,10 @@
 package com.yusufcihan.DynamicComponents.classes;
 
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,8 +23,6 @@ public class Utils {
   // Base package name for components
   private static final String BASE = "com.google.appinventor.components.runtime.";
   private static final Pattern classNamePattern = Pattern.compile("[^.$@a-zA-Z0-9_]");
-  private static final Pattern methodNamePattern = Pattern.compile("[^a-zA-Z0-9]");
-  private static final String[] canvasComponents = {"Ball", "ImageSprite", "Sprite"};
 
   public static boolean isNotEmptyOrNull(Object item) {
     return item instanceof String ? !((String) item).replace(" ", "").isEmpty() : item != null;
@@ -57,17 +54,16 @@ public class Utils {
       Create a new instance of component constructor and
       add it to the given "input" container.
   */
-  public static Component createInstance(Constructor<?> constructor, AndroidViewComponent input) {
+  public static Component createInstance(ComponentType componentType, AndroidViewComponent input) {
     Component createdComponent = null;
     try {
-      createdComponent = (Component) constructor.newInstance(input);
+      createdComponent = (Component) componentType.constructor.newInstance(input);
     } catch(Exception e) {
       String errorMessage = e.getMessage() == null ? "Unknown error" : e.getMessage();
       throw new YailRuntimeError("Couldn't create an instance: " + errorMessage, TAG);
     }
     // Canvas components needs to be initialized with invoking "Initialize" method.
-    String createdComponentClassName = createdComponent.getClass().getSimpleName();
-    if (Arrays.asList(canvasComponents).contains(createdComponentClassName)) {
+    if (componentType.requiresInitialize) {
       callMethod(createdComponent, "Initialize", new Object[] { });
     }
     return createdComponent;
@@ -78,26 +74,20 @@ public class Utils {
       Return null if not found.
   */
   public static Method getMethod(Object object, String name, int parameterCount) {
-    String nameString = methodNamePattern.matcher(name).replaceAll("");
-    for (Method method : object.getClass().getMethods()) {
-      int methodParameterCount = method.getParameterTypes().length;
-      if (method.getName().equals(nameString) && methodParameterCount == parameterCount) {
-        return method;
-      }
-    }
-    return null;
+    ResolvedMethod resolved = MethodCache.find(object.getClass(), name, parameterCount);
+    return resolved == null ? null : resolved.method;
   }
 
   /*
       Get a method of a object by its name. Return null if not found.
   */
   public static Method getMethod(Object object, String name) {
-    try {
-      return object.getClass().getMethod(name);
-    } catch (NoSuchMethodException e) {
+    ResolvedMethod resolved = MethodCache.find(object.getClass(), name, 0);
+    if (resolved == null) {
       Log.e(TAG, "[priority=low] Method not found with name: '" +  name + "'");
+      return null;
     }
-    return null;
+    return resolved.method;
   }
 
   /*
@@ -107,32 +97,17 @@ public class Utils {
     if (!isNotEmptyOrNull(object)) {
       throw new YailRuntimeError("Component cannot be null.", TAG);
     }
+    final long mBegin = Stats.begin();
     try {
-      Method mMethod = getMethod(object, name, parameters.length);
-      Class<?>[] mRequestedMethodParameters = mMethod.getParameterTypes();
-
-      for (int i = 0; i < mRequestedMethodParameters.length; i++) {
-        final String value = String.valueOf(parameters[i]);
-
-        switch (mRequestedMethodParameters[i].getName()) {
-          case "int":
-            parameters[i] = Integer.parseInt(value);
-            break;
-          case "float":
-            parameters[i] = Float.parseFloat(value);
-            break;
-          case "double":
-            parameters[i] = Double.parseDouble(value);
-            break;
-          case "java.lang.String":
-            parameters[i] = value;
-            break;
-          case "boolean":
-            parameters[i] = Boolean.parseBoolean(value);
-            break;
-        }
+      ResolvedMethod mMethod = MethodCache.find(object.getClass(), name, parameters.length);
+      if (mMethod == null) {
+        throw new NoSuchMethodException("Method not found with name: '" + name + "'");
       }
+      mMethod.convertParameters(parameters);
       Object mInvokedMethod = mMethod.invoke(object, parameters);
+      if (mBegin != Stats.NOT_RECORDED) {
+        Stats.end("call." + object.getClass().getSimpleName() + "." + mMethod.method.getName(), mBegin);
+      }
       return mInvokedMethod;
     } catch (InvocationTargetException e) {
       String errorMessage = e.getCause().getMessage() == null ? e.getCause().toString() : e.getCause().getMessage();
@@ -145,23 +120,16 @@ public class Utils {
   }
 
   /*
-      Replace template keys in a string for each given template
-      keys and their corresponding values.
+      Replace template keys in a string with their corresponding values.
 
       "Hello, {name}!" -> "Hello, John!"
 
-      We don't need additional formatting options, so we just
-      simply replace the text here.
+      The text is scanned only once and keys are looked up from the
+      map. If the text only consists of a single key, like "{count}",
+      the value is returned without converting it to a text.
   */
-  public static String formatTemplateString(String text, final Iterable<String[]> formatMapping) {
-    String replacedText = text;
-    for (String[] formatPair : formatMapping) {
-      final String formatString = "{" + formatPair[0] + "}";
-      if (replacedText.contains(formatString)) {
-        replacedText = replacedText.replace(formatString, formatPair[1]);
-      }
-    }
-    return replacedText;
+  public static Object formatTemplateString(String text, final Map<String, ?> formatMapping) {
+    return TemplateString.format(text, formatMapping);
   }
 
   /*
@@ -171,15 +139,15 @@ public class Utils {
       will be created in.
   */
   public static LinkedList<JSONObject> componentDataToList(
-    String parentId, JSONObject componentData, final Iterable<String[]> formatMapping
+    String parentId, JSONObject componentData, final Map<String, ?> formatMapping
   ) {
     LinkedList<JSONObject> componentsOutput = new LinkedList<JSONObject>();
     JSONObject currentComponent = new JSONObject();
     if (!componentData.has("id") || !componentData.has("type")) {
       throw new YailRuntimeError("All components in the schema at least must have an 'id' and 'type'.", TAG);
     }
-    currentComponent.put("type", formatTemplateString(componentData.getString("type"), formatMapping));
-    currentComponent.put("id", formatTemplateString(componentData.getString("id"), formatMapping));
+    currentComponent.put("type", String.valueOf(formatTemplateString(componentData.getString("type"), formatMapping)));
+    currentComponent.put("id", String.valueOf(formatTemplateString(componentData.getString("id"), formatMapping)));
     if (!parentId.isEmpty()) {
       currentComponent.put("parent", parentId);
     }
@@ -191,7 +159,7 @@ public class Utils {
         String key = (String)propertyObjectKeys.next();
         Object value = propertyObject.get(key);
         currentProperties.put(
-          formatTemplateString(key, formatMapping),
+          String.valueOf(formatTemplateString(key, formatMapping)),
           value instanceof String ? formatTemplateString((String)value, formatMapping) : value
         );
       }
@@ -203,8 +171,7 @@ public class Utils {
       for (int i = 0; i < childComponents.length(); i++) {
         final JSONObject childObject = childComponents.getJSONObject(i);
         final LinkedList<JSONObject> childTree = componentDataToList(
-          formatTemplateString(currentComponent.getString("id"), formatMapping),
-          childObject, formatMapping
+          currentComponent.getString("id"), childObject, formatMapping
         );
         for (JSONObject child : childTree) {
           componentsOutput.addLast(child);
@@ -219,7 +186,7 @@ public class Utils {
       return a flattened list in result.
   */
   public static LinkedList<JSONObject> componentTreeToList(
-    JSONArray componentList, final Iterable<String[]> formatMapping
+    JSONArray componentList, final Map<String, ?> formatMapping
   ) {
     LinkedList<JSONObject> componentsOutput = new LinkedList<JSONObject>();
     try {
@@ -0,0 +1,284 @@
+package com.yusufcihan.DynamicComponents.classes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.appinventor.components.runtime.AndroidViewComponent;
+import com.google.appinventor.components.runtime.Component;
+import com.google.appinventor.components.runtime.errors.YailRuntimeError;
+import com.google.appinventor.components.runtime.util.YailList;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+
+/*
+    A list of rows in a vertical scroll arrangement where only the rows
+    near the visible area have components. Each row is created from the
+    same compiled schema, and when the list is scrolled, the components
+    of rows that went out of the view are moved to the other side and
+    bound to the parameters of the rows that came into the view.
+
+    Rows are expected to have the same height, which is used to size
+    the empty space for the rows that don't have components.
+*/
+public class VirtualList {
+  private static final String TAG = Utils.TAG;
+  // Amount of extra rows kept above and below the visible area.
+  private static final int OVERSCAN = 2;
+  // Amount of rows to start with when the arrangement has no height yet.
+  private static final int INITIAL_ROWS = 10;
+
+  /*
+      Creates and removes the components of the rows.
+  */
+  public interface Host {
+    Component createRowComponent(AndroidViewComponent in, String parentId, String type, String id);
+
+    void setRowProperties(Component component, Map<String, Object> properties);
+
+    void removeRowComponent(Component component);
+  }
+
+  private static final class Slot {
+    final Component[] components;
+    final ArrayList<View> rootViews = new ArrayList<View>();
+    int row = -1;
+
+    Slot(int size) {
+      components = new Component[size];
+    }
+  }
+
+  private final String id;
+  private final AndroidViewComponent container;
+  private final CompiledSchema schema;
+  private final int rowHeight;
+  private final Host host;
+
+  private final ScrollView scrollView;
+  private final ViewGroup layout;
+  private final View topSpace;
+  private final View bottomSpace;
+
+  // Slots in the same order as they are placed in the layout.
+  private final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+  private final IdentityHashMap<Component, Slot> slotOfComponent = new IdentityHashMap<Component, Slot>();
+  private List<Object[]> rows;
+  private int firstRow = 0;
+  private int createdSlots = 0;
+
+  private final ViewTreeObserver.OnScrollChangedListener scrollListener = new ViewTreeObserver.OnScrollChangedListener() {
+    @Override
+    public void onScrollChanged() {
+      update();
+    }
+  };
+
+  private final ViewTreeObserver.OnGlobalLayoutListener layoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+    @Override
+    public void onGlobalLayout() {
+      update();
+    }
+  };
+
+  public VirtualList(String id, AndroidViewComponent container, CompiledSchema schema, int rowHeight, Host host) {
+    if (!(container.getView() instanceof ScrollView)) {
+      throw new YailRuntimeError("Virtual lists can only be created in a vertical scroll arrangement.", TAG);
+    }
+    if (rowHeight <= 0) {
+      throw new YailRuntimeError("Row height must be greater than zero.", TAG);
+    }
+    // Fail early if components can't be recycled between rows.
+    for (int i = 0; i < schema.getComponentCount(); i++) {
+      schema.getFixedType(i);
+    }
+    this.id = id;
+    this.container = container;
+    this.schema = schema;
+    this.rowHeight = rowHeight;
+    this.host = host;
+    this.scrollView = (ScrollView) container.getView();
+    this.layout = (ViewGroup) scrollView.getChildAt(0);
+    this.topSpace = new View(scrollView.getContext());
+    this.bottomSpace = new View(scrollView.getContext());
+    layout.addView(topSpace);
+    layout.addView(bottomSpace);
+    scrollView.getViewTreeObserver().addOnScrollChangedListener(scrollListener);
+    scrollView.getViewTreeObserver().addOnGlobalLayoutListener(layoutListener);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /*
+      Replace the rows of the list. Each row is a list of template
+      parameters, or a single value for templates with one parameter.
+  */
+  public void setRows(YailList rows) {
+    final ArrayList<Object[]> parameters = new ArrayList<Object[]>(rows.size());
+    for (Object row : rows.toArray()) {
+      final Object[] values = row instanceof YailList ? ((YailList) row).toArray() : new Object[] { row };
+      if (values.length != schema.getParameterCount()) {
+        throw new YailRuntimeError(
+          "Each row must contain same amount of items that defined in the schema. " +
+          "The template expects: " + schema.getParameterCount() + ", but a row has: " + values.length, TAG
+        );
+      }
+      parameters.add(values);
+    }
+    this.rows = parameters;
+    for (Slot slot : slots) {
+      slot.row = -1;
+    }
+    update();
+  }
+
+  /*
+      Returns the index (beginning from zero) of the row that the given
+      component currently shows, or -1 if it isn't a part of this list.
+  */
+  public int getRowOf(Component component) {
+    final Slot slot = slotOfComponent.get(component);
+    return slot == null ? -1 : slot.row;
+  }
+
+  /*
+      Create, move and bind the row components for the current scroll
+      position. Only the rows that came into the view are bound again.
+  */
+  public void update() {
+    if (rows == null) {
+      return;
+    }
+    final int viewportHeight = scrollView.getHeight();
+    final int visibleRows = viewportHeight > 0 ? (viewportHeight + rowHeight - 1) / rowHeight : INITIAL_ROWS;
+    final int slotCount = Math.min(rows.size(), visibleRows + OVERSCAN * 2);
+
+    while (slots.size() > slotCount) {
+      removeSlot(slots.pollLast());
+    }
+    while (slots.size() < slotCount) {
+      slots.addLast(createSlot());
+    }
+
+    final int scrolledRows = scrollView.getScrollY() / rowHeight;
+    final int newFirstRow = Math.max(0, Math.min(scrolledRows - OVERSCAN, rows.size() - slotCount));
+    final int shift = newFirstRow - firstRow;
+    if (shift > 0 && shift < slotCount) {
+      // Scrolled down, move the slots at the top to the bottom.
+      for (int i = 0; i < shift; i++) {
+        final Slot slot = slots.pollFirst();
+        for (View view : slot.rootViews) {
+          layout.removeView(view);
+          layout.addView(view, layout.indexOfChild(bottomSpace));
+        }
+        slots.addLast(slot);
+      }
+    } else if (shift < 0 && -shift < slotCount) {
+      // Scrolled up, move the slots at the bottom to the top.
+      for (int i = 0; i < -shift; i++) {
+        final Slot slot = slots.pollLast();
+        int index = layout.indexOfChild(topSpace) + 1;
+        for (View view : slot.rootViews) {
+          layout.removeView(view);
+          layout.addView(view, index++);
+        }
+        slots.addFirst(slot);
+      }
+    }
+    firstRow = newFirstRow;
+
+    int row = firstRow;
+    for (Slot slot : slots) {
+      if (slot.row != row) {
+        bind(slot, row);
+      }
+      row++;
+    }
+    setHeight(topSpace, firstRow * rowHeight);
+    setHeight(bottomSpace, (rows.size() - firstRow - slots.size()) * rowHeight);
+  }
+
+  /*
+      Remove all components and spaces of this list from the arrangement.
+  */
+  public void dispose() {
+    detach();
+    while (!slots.isEmpty()) {
+      removeSlot(slots.pollLast());
+    }
+    layout.removeView(topSpace);
+    layout.removeView(bottomSpace);
+    rows = null;
+  }
+
+  /*
+      Stop following the scroll position and the layout of the arrangement,
+      without removing the components, for when the screen has been closed.
+  */
+  public void detach() {
+    final ViewTreeObserver observer = scrollView.getViewTreeObserver();
+    if (observer.isAlive()) {
+      observer.removeOnScrollChangedListener(scrollListener);
+      observer.removeGlobalOnLayoutListener(layoutListener);
+    }
+  }
+
+  private Slot createSlot() {
+    final int slotIndex = createdSlots++;
+    final Slot slot = new Slot(schema.getComponentCount());
+    for (int i = 0; i < schema.getComponentCount(); i++) {
+      final int parent = schema.getParentIndex(i);
+      final Component component = host.createRowComponent(
+        container,
+        parent == -1 ? null : slotComponentId(slotIndex, parent),
+        schema.getFixedType(i),
+        slotComponentId(slotIndex, i)
+      );
+      slot.components[i] = component;
+      slotOfComponent.put(component, slot);
+      if (parent == -1 && component instanceof AndroidViewComponent) {
+        slot.rootViews.add(((AndroidViewComponent) component).getView());
+      }
+    }
+    // Components are added to the end of the arrangement, keep the bottom space after them.
+    layout.removeView(bottomSpace);
+    layout.addView(bottomSpace);
+    return slot;
+  }
+
+  private void removeSlot(Slot slot) {
+    // Children first, so parents are still there while their children are removed.
+    for (int i = slot.components.length - 1; i >= 0; i--) {
+      slotOfComponent.remove(slot.components[i]);
+      host.removeRowComponent(slot.components[i]);
+    }
+  }
+
+  private void bind(Slot slot, int row) {
+    final CompiledSchema.BoundNode[] bound = schema.bind(rows.get(row));
+    for (int i = 0; i < bound.length; i++) {
+      host.setRowProperties(slot.components[i], bound[i].properties);
+    }
+    slot.row = row;
+  }
+
+  private String slotComponentId(int slotIndex, int node) {
+    return id + "." + slotIndex + "." + schema.getTemplateId(node);
+  }
+
+  private static void setHeight(View view, int height) {
+    final ViewGroup.LayoutParams params = view.getLayoutParams();
+    if (params != null && params.height == height) {
+      return;
+    }
+    view.setLayoutParams(new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, Math.max(0, height)));
+  }
+}
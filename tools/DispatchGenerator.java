@@ -0,0 +1,284 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/*
+    Generates the StockDispatch class of Dynamic Components, which calls
+    the properties and functions of the stock App Inventor components
+    with a switch instead of reflection.
+
+    Usage: java DispatchGenerator <output source dir> <AndroidRuntime.jar> [classpath]
+
+    The classpath (android.jar, kawa.jar etc.) is only needed to load
+    the component classes, classes are never initialized.
+*/
+public class DispatchGenerator {
+  private static final String RUNTIME_PACKAGE = "com.google.appinventor.components.runtime";
+  private static final String OUTPUT_PACKAGE = "com.yusufcihan.DynamicComponents.classes";
+  private static final String OUTPUT_CLASS = "StockDispatch";
+
+  private static final List<String> ANNOTATIONS = Arrays.asList(
+    "com.google.appinventor.components.annotations.SimpleProperty",
+    "com.google.appinventor.components.annotations.SimpleFunction"
+  );
+
+  private static final class DispatchedClass {
+    final Class<?> type;
+    final List<Method> methods;
+
+    DispatchedClass(Class<?> type, List<Method> methods) {
+      this.type = type;
+      this.methods = methods;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: java DispatchGenerator <output source dir> <AndroidRuntime.jar> [classpath]");
+      System.exit(1);
+    }
+    final ArrayList<URL> urls = new ArrayList<URL>();
+    urls.add(new File(args[1]).toURI().toURL());
+    if (args.length > 2) {
+      for (String path : args[2].split(File.pathSeparator)) {
+        if (!path.isEmpty()) {
+          urls.add(new File(path).toURI().toURL());
+        }
+      }
+    }
+    final URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), DispatchGenerator.class.getClassLoader());
+    final Class<?> component = Class.forName(RUNTIME_PACKAGE + ".Component", false, loader);
+
+    final ArrayList<DispatchedClass> classes = new ArrayList<DispatchedClass>();
+    for (String className : listClasses(new File(args[1]))) {
+      final Class<?> type;
+      final Method[] declared;
+      try {
+        type = Class.forName(className, false, loader);
+        if (!Modifier.isPublic(type.getModifiers()) || !component.isAssignableFrom(type)) {
+          continue;
+        }
+        declared = type.getDeclaredMethods();
+      } catch (Throwable e) {
+        // Classes that depend on libraries which are not given can't be dispatched.
+        System.err.println("Skipping " + className + ": " + e);
+        continue;
+      }
+      final ArrayList<Method> methods = new ArrayList<Method>();
+      for (Method method : declared) {
+        if (isDispatchable(method)) {
+          methods.add(method);
+        }
+      }
+      if (!methods.isEmpty()) {
+        Collections.sort(methods, new Comparator<Method>() {
+          @Override
+          public int compare(Method a, Method b) {
+            return signature(a).compareTo(signature(b));
+          }
+        });
+        classes.add(new DispatchedClass(type, methods));
+      }
+    }
+
+    final File outputDir = new File(args[0], OUTPUT_PACKAGE.replace('.', File.separatorChar));
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IOException("Couldn't create " + outputDir);
+    }
+    final Writer writer = new OutputStreamWriter(new FileOutputStream(new File(outputDir, OUTPUT_CLASS + ".java")), "UTF-8");
+    try {
+      write(writer, classes);
+    } finally {
+      writer.close();
+    }
+    int count = 0;
+    for (DispatchedClass dispatched : classes) {
+      count += dispatched.methods.size();
+    }
+    System.out.println("Generated " + OUTPUT_CLASS + " with " + count + " methods of " + classes.size() + " classes.");
+  }
+
+  private static List<String> listClasses(File jar) throws IOException {
+    final String prefix = RUNTIME_PACKAGE.replace('.', '/') + "/";
+    final ArrayList<String> names = new ArrayList<String>();
+    final JarFile jarFile = new JarFile(jar);
+    try {
+      final Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        final String name = entries.nextElement().getName();
+        // Only the top level classes directly in the runtime package.
+        if (name.startsWith(prefix) && name.endsWith(".class") && name.indexOf('/', prefix.length()) == -1
+            && name.indexOf('$') == -1) {
+          names.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+        }
+      }
+    } finally {
+      jarFile.close();
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  private static boolean isDispatchable(Method method) {
+    final int modifiers = method.getModifiers();
+    if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || method.isBridge() || method.isSynthetic()) {
+      return false;
+    }
+    boolean annotated = false;
+    for (Annotation annotation : method.getAnnotations()) {
+      if (ANNOTATIONS.contains(annotation.annotationType().getName())) {
+        annotated = true;
+      }
+    }
+    if (!annotated) {
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (!isAccessible(parameterType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAccessible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    for (Class<?> current = type; current != null; current = current.getDeclaringClass()) {
+      if (!current.isPrimitive() && !Modifier.isPublic(current.getModifiers())) {
+        return false;
+      }
+    }
+    return type.getCanonicalName() != null;
+  }
+
+  /*
+      Must be the same format that Dispatch.idOf() looks methods up with.
+      The return type is a part of it, as other App Inventor distributions
+      can have the same method with another return type, which would fail
+      to link if it was called by the generated code.
+  */
+  private static String signature(Method method) {
+    final StringBuilder signature = new StringBuilder(method.getName()).append('(');
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        signature.append(',');
+      }
+      signature.append(parameterTypes[i].getName());
+    }
+    return signature.append(')').append(method.getReturnType().getName()).toString();
+  }
+
+  private static String castType(Class<?> type) {
+    if (type == int.class) {
+      return "java.lang.Integer";
+    } else if (type == boolean.class) {
+      return "java.lang.Boolean";
+    } else if (type == float.class) {
+      return "java.lang.Float";
+    } else if (type == double.class) {
+      return "java.lang.Double";
+    } else if (type == long.class) {
+      return "java.lang.Long";
+    } else if (type == short.class) {
+      return "java.lang.Short";
+    } else if (type == byte.class) {
+      return "java.lang.Byte";
+    } else if (type == char.class) {
+      return "java.lang.Character";
+    }
+    return type.getCanonicalName();
+  }
+
+  private static void write(Writer out, List<DispatchedClass> classes) throws IOException {
+    out.write("// Generated by tools/DispatchGenerator.java from the App Inventor runtime, don't edit.\n");
+    out.write("package " + OUTPUT_PACKAGE + ";\n\n");
+    out.write("@SuppressWarnings({\"deprecation\", \"unchecked\", \"rawtypes\"})\n");
+    out.write("public final class " + OUTPUT_CLASS + " implements Dispatcher {\n");
+
+    // IDs are the index of the class in the upper 16 bits and the index of the method in the lower 16 bits.
+    out.write("  @Override\n");
+    out.write("  public int id(String className, String methodName, String parameterTypes, String returnType) {\n");
+    out.write("    final String method = methodName + \"(\" + parameterTypes + \")\" + returnType;\n");
+    out.write("    switch (className) {\n");
+    for (int c = 0; c < classes.size(); c++) {
+      out.write("      case \"" + classes.get(c).type.getName() + "\":\n");
+      out.write("        return id" + c + "(method);\n");
+    }
+    out.write("      default:\n");
+    out.write("        return NONE;\n");
+    out.write("    }\n");
+    out.write("  }\n\n");
+
+    out.write("  @Override\n");
+    out.write("  public Object invoke(int id, Object target, Object[] p) {\n");
+    out.write("    switch (id >>> 16) {\n");
+    for (int c = 0; c < classes.size(); c++) {
+      out.write("      case " + c + ":\n");
+      out.write("        return invoke" + c + "(id & 0xFFFF, (" + classes.get(c).type.getCanonicalName() + ") target, p);\n");
+    }
+    out.write("      default:\n");
+    out.write("        throw new IllegalArgumentException(\"Unknown dispatch ID: \" + id);\n");
+    out.write("    }\n");
+    out.write("  }\n");
+
+    for (int c = 0; c < classes.size(); c++) {
+      final DispatchedClass dispatched = classes.get(c);
+      out.write("\n  private static int id" + c + "(String method) {\n");
+      out.write("    switch (method) {\n");
+      for (int m = 0; m < dispatched.methods.size(); m++) {
+        out.write("      case \"" + signature(dispatched.methods.get(m)) + "\":\n");
+        out.write("        return " + ((c << 16) | m) + ";\n");
+      }
+      out.write("      default:\n");
+      out.write("        return NONE;\n");
+      out.write("    }\n");
+      out.write("  }\n");
+
+      out.write("\n  private static Object invoke" + c + "(int method, " + dispatched.type.getCanonicalName()
+        + " target, Object[] p) {\n");
+      out.write("    switch (method) {\n");
+      for (int m = 0; m < dispatched.methods.size(); m++) {
+        final Method method = dispatched.methods.get(m);
+        final StringBuilder call = new StringBuilder("target.").append(method.getName()).append('(');
+        final Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+          if (i > 0) {
+            call.append(", ");
+          }
+          call.append('(').append(castType(parameterTypes[i])).append(") p[").append(i).append(']');
+        }
+        call.append(')');
+        out.write("      case " + m + ":\n");
+        if (method.getReturnType() == void.class) {
+          out.write("        " + call + ";\n");
+          out.write("        return null;\n");
+        } else {
+          out.write("        return " + call + ";\n");
+        }
+      }
+      out.write("      default:\n");
+      out.write("        throw new IllegalArgumentException(\"Unknown dispatch ID: \" + method);\n");
+      out.write("    }\n");
+      out.write("  }\n");
+    }
+    out.write("}\n");
+  }
+}